@@ -0,0 +1,79 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Арифметика {@link Complex}: скалярное произведение векторов, деление
+ * и сортировка по модулю через {@code compareTo}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComplexBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private Complex[] first;
+    private Complex[] second;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        first = new Complex[size];
+        second = new Complex[size];
+        for (int i = 0; i < size; ++i) {
+            first[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+            second[i] = new Complex(1 + random.nextDouble(), random.nextGaussian());
+        }
+    }
+
+    /**
+     * Сумма попарных произведений: {@code multiply} изменяет объект, поэтому множим копию.
+     */
+    @Benchmark
+    public double dotProduct() {
+        Complex sum = new Complex(0, 0);
+        for (int i = 0; i < size; ++i) {
+            Complex product = new Complex(first[i].real(), first[i].imaginary());
+            product.multiply(second[i]);
+            sum.add(product);
+        }
+        return sum.real() + sum.imaginary();
+    }
+
+    @Benchmark
+    public double quotients() {
+        double total = 0;
+        for (int i = 0; i < size; ++i) {
+            Complex quotient = new Complex(first[i].real(), first[i].imaginary());
+            quotient.divide(second[i]);
+            total += quotient.abs();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Complex[] sortByModulus() {
+        Complex[] copy = first.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,191 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link MyPriorityQueue} и {@link MinHeap} против {@link PriorityQueue} из JDK.
+ * <br>{@code add*} — заполнение пустой кучи, {@code addPoll*} — заполнение и полное опустошение,
+ * {@code mixed*} — установившийся режим: куча размера {@code size}, на каждом шаге
+ * извлечение и вставка. Время — на вызов, то есть на {@code size} операций.</br>
+ * <br>{@link PriorityQueue} держит кучу в плоском массиве, {@link MyPriorityQueue} и
+ * {@link BigPriorityQueue} — в сегментах {@link SegmentedStore}; {@code mixedSnapshot*}
+ * берёт снимок перед каждым вызовом, то есть платит и за копирование сегментов при записи.</br>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeapBenchmark {
+
+    /**
+     * Распределение входных ключей.
+     */
+    public enum Distribution { RANDOM, ASCENDING, DESCENDING, DUPLICATES }
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({"RANDOM", "ASCENDING", "DESCENDING", "DUPLICATES"})
+    Distribution distribution;
+
+    private Integer[] keys;
+
+    private MyPriorityQueue<Integer> myQueue;
+    private BigPriorityQueue<Integer> bigQueue;
+    private MinHeap<Integer> minHeap;
+    private PriorityQueue<Integer> jdkQueue;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new Integer[size];
+        for (int i = 0; i < size; ++i) {
+            keys[i] = switch (distribution) {
+                case RANDOM -> random.nextInt();
+                case ASCENDING -> i;
+                case DESCENDING -> size - i;
+                case DUPLICATES -> random.nextInt(16);
+            };
+        }
+
+        myQueue = new MyPriorityQueue<>(keys, null);
+        bigQueue = new BigPriorityQueue<>();
+        bigQueue.addAll(Arrays.asList(keys));
+        minHeap = new MinHeap<>(Integer[]::new, keys.clone());
+        jdkQueue = new PriorityQueue<>(Arrays.asList(keys));
+    }
+
+    /*
+        Заполнение пустой кучи
+    */
+    @Benchmark
+    public MyPriorityQueue<Integer> addMyPriorityQueue() {
+        MyPriorityQueue<Integer> queue = new MyPriorityQueue<>();
+        for (Integer key : keys) { queue.add(key); }
+        return queue;
+    }
+
+    @Benchmark
+    public MinHeap<Integer> addMinHeap() {
+        MinHeap<Integer> heap = new MinHeap<>(Integer[]::new);
+        for (Integer key : keys) { heap.add(key); }
+        return heap;
+    }
+
+    @Benchmark
+    public PriorityQueue<Integer> addPriorityQueue() {
+        PriorityQueue<Integer> queue = new PriorityQueue<>();
+        for (Integer key : keys) { queue.add(key); }
+        return queue;
+    }
+
+    /*
+        Сборка кучи из готового массива: последовательный Флойд и параллельный
+    */
+    @Benchmark
+    public MyPriorityQueue<Integer> heapifyMyPriorityQueue() {
+        return new MyPriorityQueue<>(keys, null);
+    }
+
+    @Benchmark
+    public MyPriorityQueue<Integer> heapifyParallelMyPriorityQueue() {
+        return MyPriorityQueue.buildParallel(keys, null, 2);
+    }
+
+    @Benchmark
+    public MinHeap<Integer> heapifyMinHeap() {
+        return MinHeap.withArity(2, Integer[]::new, keys);
+    }
+
+    @Benchmark
+    public MinHeap<Integer> heapifyParallelMinHeap() {
+        return MinHeap.parallelOf(2, Integer[]::new, keys);
+    }
+
+    /*
+        Заполнение и полное опустошение
+    */
+    @Benchmark
+    public void addPollMyPriorityQueue(Blackhole blackhole) {
+        MyPriorityQueue<Integer> queue = new MyPriorityQueue<>();
+        for (Integer key : keys) { queue.add(key); }
+        while (!queue.isEmpty()) { blackhole.consume(queue.poll()); }
+    }
+
+    @Benchmark
+    public void addPollMinHeap(Blackhole blackhole) {
+        MinHeap<Integer> heap = new MinHeap<>(Integer[]::new);
+        for (Integer key : keys) { heap.add(key); }
+        for (int i = 0; i < keys.length; ++i) { blackhole.consume(heap.poll()); }
+    }
+
+    @Benchmark
+    public void addPollPriorityQueue(Blackhole blackhole) {
+        PriorityQueue<Integer> queue = new PriorityQueue<>();
+        for (Integer key : keys) { queue.add(key); }
+        while (!queue.isEmpty()) { blackhole.consume(queue.poll()); }
+    }
+
+    /*
+        Установившийся режим: извлечение + вставка на заполненной куче
+    */
+    @Benchmark
+    public void mixedMyPriorityQueue(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(myQueue.poll());
+            myQueue.add(key);
+        }
+    }
+
+    @Benchmark
+    public PriorityQueueSnapshot<Integer> mixedSnapshotMyPriorityQueue(Blackhole blackhole) {
+        PriorityQueueSnapshot<Integer> snapshot = myQueue.snapshot();
+        for (Integer key : keys) {
+            blackhole.consume(myQueue.poll());
+            myQueue.add(key);
+        }
+        return snapshot;
+    }
+
+    @Benchmark
+    public void mixedBigPriorityQueue(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(bigQueue.poll());
+            bigQueue.add(key);
+        }
+    }
+
+    @Benchmark
+    public void mixedMinHeap(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(minHeap.poll());
+            minHeap.add(key);
+        }
+    }
+
+    @Benchmark
+    public void mixedPriorityQueue(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(jdkQueue.poll());
+            jdkQueue.add(key);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package tasks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ядро {@link FirstExercise}: {@code y = G·x} и {@code s = xᵀ·y} на случайной
+ * симметричной матрице N×N — по полной матрице и по упакованному треугольнику,
+ * последовательно и многопоточным {@link MatVecKernel}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatVecBenchmark {
+
+    @Param({"64", "512", "2048", "8192"})
+    int n;
+
+    private double[][] matrix;
+    private SymmetricMatrix packed;
+    private double[] vector;
+    private final MatVecKernel kernel = new MatVecKernel();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        matrix = new double[n][n];
+        packed = new SymmetricMatrix(n);
+        vector = new double[n];
+        for (int i = 0; i < n; ++i) {
+            vector[i] = random.nextDouble();
+            for (int j = i; j < n; ++j) {
+                matrix[i][j] = matrix[j][i] = random.nextDouble();
+                packed.set(i, j, matrix[i][j]);
+            }
+        }
+    }
+
+    @Benchmark
+    public double quadraticForm() {
+        return FirstExercise.quadraticForm(matrix, vector);
+    }
+
+    @Benchmark
+    public double quadraticFormPacked() {
+        return packed.quadraticForm(vector);
+    }
+
+    @Benchmark
+    public double quadraticFormKernel() {
+        return kernel.quadraticForm(matrix, vector);
+    }
+
+    @Benchmark
+    public double quadraticFormPackedKernel() {
+        return kernel.quadraticForm(packed, vector);
+    }
+}
@@ -0,0 +1,303 @@
+package tasks;
+
+import java.util.*;
+
+/**
+ * Очередь с приоритетом на <b>сегментированном</b> хранилище для очень больших объёмов.
+ * <br>{@link MyPriorityQueue} адресует кучу {@code int}-индексом, и её размер ограничен
+ * 2^31 элементами. Здесь та же {@link SegmentedStore} адресуется {@code long}-индексом:
+ * рост — это выделение новых сегментов без копирования старых, а после больших
+ * опустошений лишние сегменты отдаются сборщику мусора. Первый сегмент растёт как
+ * обычный массив, так что маленькая очередь не держит полный сегмент.</br>
+ * <br>Кроме роста первого сегмента, копируется только каталог ссылок на сегменты,
+ * он в {@value SegmentedStore#SEGMENT_SIZE} раз меньше самой кучи.
+ * {@link #size()} по контракту {@link Collection} ограничен {@link Integer#MAX_VALUE};
+ * точный размер — {@link #longSize()}.</br>
+ * @param <T> тип элементов
+ */
+public class BigPriorityQueue<T> extends AbstractQueue<T> {
+    private static final int FIRST_SEGMENT_SIZE = 16; // Начальная длина первого сегмента
+    private static final int DEFAULT_ARITY = 2;
+
+    private SegmentedStore<T> heap = new SegmentedStore<>(FIRST_SEGMENT_SIZE);
+    private long size;
+
+    private final Comparator<? super T> comparator;
+    private final int arity;
+
+    /**
+     * Fail-fast счётчик модификаций для итератора.
+     */
+    private int modificationCount = 0;
+
+    /**
+     * Очередь с естественным порядком элементов.
+     */
+    public BigPriorityQueue() {
+        this(null, DEFAULT_ARITY);
+    }
+
+    /**
+     * @param comparator компаратор, {@code null} — естественный порядок
+     */
+    public BigPriorityQueue(Comparator<? super T> comparator) {
+        this(comparator, DEFAULT_ARITY);
+    }
+
+    /**
+     * @param comparator компаратор, {@code null} — естественный порядок
+     * @param arity число детей у каждого узла (не меньше 2)
+     */
+    public BigPriorityQueue(Comparator<? super T> comparator, int arity) {
+        if (arity < 2) throw new IllegalArgumentException("Arity of heap must be at least 2.");
+        this.comparator = comparator;
+        this.arity = arity;
+    }
+
+    /**
+     * Вставка: при заполнении выделяется ровно один новый сегмент (или подрастает первый).
+     * @param element элемент, не {@code null}
+     * @return всегда {@code true}
+     */
+    @Override
+    public boolean offer(T element) {
+        Objects.requireNonNull(element);
+        if (size == heap.capacity()) {
+            heap.ensureCapacity(size + 1);
+        }
+        siftUp(size++, element);
+        modificationCount++;
+        return true;
+    }
+
+    @Override
+    public T peek() {
+        return (size == 0) ? null : get(0);
+    }
+
+    /**
+     * Извлечение минимума; освободившиеся сегменты в хвосте возвращаются сборщику мусора.
+     * @return минимум или {@code null}, если очередь пуста
+     */
+    @Override
+    public T poll() {
+        if (size == 0) { return null; }
+
+        T minimum = get(0);
+        long last = --size;
+        T moved = get(last);
+        set(last, null);
+        if (last > 0) {
+            siftDown(0, moved);
+        }
+        heap.releaseSpare(size);
+        modificationCount++;
+        return minimum;
+    }
+
+    /**
+     * Удаление конкретного элемента линейным поиском за O(n) и перестройка кучи за O(log n).
+     * <br>Через него работают {@code removeAll}, {@code retainAll} и {@code removeIf}
+     * из {@link AbstractCollection}.</br>
+     * @param o удаляемый элемент
+     * @return {@code true}, если элемент был в очереди
+     */
+    @Override
+    public boolean remove(Object o) {
+        for (long i = 0; i < size; ++i) {
+            if (Objects.equals(get(i), o)) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Удаление узла: на его место встаёт последний элемент и идёт вниз или вверх.
+     * @param index индекс удаляемого узла
+     * @return последний элемент, если он поднялся выше {@code index}, иначе {@code null} —
+     *         итератору он нужен, чтобы не пропустить его
+     */
+    private T removeAt(long index) {
+        modificationCount++;
+        long last = --size;
+        T moved = get(last);
+        set(last, null);
+        T overtaken = null;
+        if (index < last) {
+            siftDown(index, moved);
+            if (get(index) == moved) {
+                siftUp(index, moved);
+                if (get(index) != moved) { overtaken = moved; }
+            }
+        }
+        heap.releaseSpare(size);
+        return overtaken;
+    }
+
+    /**
+     * @return число элементов, но не больше {@link Integer#MAX_VALUE}
+     */
+    @Override
+    public int size() { return (int) Math.min(size, Integer.MAX_VALUE); }
+
+    /**
+     * @return точное число элементов
+     */
+    public long longSize() { return size; }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Очистка с освобождением всех сегментов.
+     */
+    @Override
+    public void clear() {
+        heap = new SegmentedStore<>(FIRST_SEGMENT_SIZE);
+        size = 0;
+        modificationCount++;
+    }
+
+    /**
+     * @return компаратор очереди или {@code null} для естественного порядка
+     */
+    public Comparator<? super T> comparator() { return comparator; }
+
+    /**
+     * @return число выделенных сегментов — сколько памяти держит очередь
+     */
+    public int allocatedSegments() { return heap.segmentCount(); }
+
+    /**
+     * Обход в порядке хранения (не отсортированном) с поддержкой {@link Iterator#remove()}.
+     * <br>Если удаление поднимает последний элемент выше курсора, он откладывается
+     * и выдаётся в конце обхода — так ни один элемент не пропускается и не повторяется.</br>
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private long cursor = 0;
+            private long lastReturned = -1;    // Индекс последнего выданного, -1 — выдан отложенный
+            private T lastReturnedElement;     // Последний выданный из отложенных
+            private ArrayDeque<T> overtaken;   // Элементы, поднятые удалением выше курсора
+            private int expectedModCount = modificationCount;
+
+            @Override
+            public boolean hasNext() {
+                checkForComodification();
+                return cursor < size || (overtaken != null && !overtaken.isEmpty());
+            }
+
+            @Override
+            public T next() {
+                checkForComodification();
+                if (cursor < size) {
+                    lastReturned = cursor;
+                    return get(cursor++);
+                }
+                if (overtaken != null && !overtaken.isEmpty()) {
+                    lastReturned = -1;
+                    lastReturnedElement = overtaken.poll();
+                    return lastReturnedElement;
+                }
+                throw new NoSuchElementException("Heap is empty!");
+            }
+
+            @Override
+            public void remove() {
+                checkForComodification();
+                if (lastReturned >= 0) {
+                    T moved = removeAt(lastReturned);
+                    lastReturned = -1;
+                    if (moved == null) {
+                        cursor--; // На место удалённого встал ещё не выданный элемент
+                    } else {
+                        if (overtaken == null) { overtaken = new ArrayDeque<>(); }
+                        overtaken.add(moved);
+                    }
+                } else if (lastReturnedElement != null) {
+                    removeIdentical(lastReturnedElement);
+                    lastReturnedElement = null;
+                } else {
+                    throw new IllegalStateException();
+                }
+                expectedModCount = modificationCount;
+            }
+
+            private void checkForComodification() {
+                if (modificationCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        };
+    }
+
+    /**
+     * Удаление именно этого объекта (по ссылке) — для отложенных элементов итератора.
+     */
+    private void removeIdentical(Object o) {
+        for (long i = 0; i < size; ++i) {
+            if (get(i) == o) {
+                removeAt(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Подъём «дыркой»: родители сдвигаются вниз, элемент пишется один раз.
+     */
+    private void siftUp(long index, T element) {
+        while (index > 0) {
+            long parentIndex = (index - 1) / arity;
+            T parent = get(parentIndex);
+            if (compare(parent, element) <= 0) { break; }
+
+            set(index, parent);
+            index = parentIndex;
+        }
+        set(index, element);
+    }
+
+    /**
+     * Спуск «дыркой» с выбором наименьшего из детей.
+     */
+    private void siftDown(long index, T element) {
+        while (true) {
+            long firstChild = arity * index + 1;
+            if (firstChild >= size) { break; }
+
+            long lowerChild = firstChild;
+            T lower = get(firstChild);
+            long lastChild = Math.min(firstChild + arity, size);
+            for (long child = firstChild + 1; child < lastChild; ++child) {
+                T candidate = get(child);
+                if (compare(candidate, lower) < 0) {
+                    lowerChild = child;
+                    lower = candidate;
+                }
+            }
+            if (compare(element, lower) <= 0) { break; }
+
+            set(index, lower);
+            index = lowerChild;
+        }
+        set(index, element);
+    }
+
+    private T get(long index) {
+        return heap.get(index);
+    }
+
+    private void set(long index, T element) {
+        heap.set(index, element);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(T o1, T o2) {
+        if (comparator != null) return comparator.compare(o1, o2);
+        return ((Comparable<? super T>) o1).compareTo(o2);
+    }
+}
@@ -0,0 +1,100 @@
+package tasks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Последовательное чтение прогона, записанного {@link RunWriter}, через буферизованный канал.
+ * <br>В отличие от {@link MappedRunReader}, не отображает файл в память: каждый прогон держит
+ * только свой буфер, поэтому сотни одновременно открытых прогонов при слиянии
+ * занимают предсказуемую память и не расходуют адресное пространство.</br>
+ * <br>Курсор всегда стоит на очередном элементе: {@link #head()} — без продвижения,
+ * {@link #advance()} — переход к следующему.</br>
+ * @param <T> тип элементов
+ */
+final class ChannelRunReader<T> implements Closeable {
+    private final Path path;
+    private final FileChannel channel;
+    private final ElementCodec<T> codec;
+
+    private ByteBuffer buffer;
+    private T head;
+    private boolean exhausted;
+
+    ChannelRunReader(Path path, ElementCodec<T> codec, int bufferBytes) throws IOException {
+        this.path = path;
+        this.codec = codec;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferBytes, Integer.BYTES));
+        buffer.flip(); // Пустой буфер в режиме чтения
+        advance();
+    }
+
+    /**
+     * @return текущий элемент
+     * @throws IllegalStateException если прогон исчерпан
+     */
+    T head() {
+        if (exhausted) throw new IllegalStateException("Run is exhausted.");
+        return head;
+    }
+
+    boolean isExhausted() { return exhausted; }
+
+    Path path() { return path; }
+
+    /**
+     * Переход к следующему элементу.
+     */
+    void advance() throws IOException {
+        if (!fill(Integer.BYTES)) {
+            if (buffer.hasRemaining()) throw new IOException("Truncated run file: " + path);
+            exhausted = true;
+            head = null;
+            return;
+        }
+
+        int length = buffer.getInt();
+        if (length < 0) throw new IOException("Corrupted record length in " + path);
+        if (!fill(length)) throw new IOException("Truncated run file: " + path);
+
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        head = codec.decode(slice);
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Дочитывание, пока в буфере не окажется {@code bytes} байт; буфер растёт под крупный элемент.
+     * @return {@code false}, если файл кончился раньше
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) { return true; }
+
+        if (buffer.capacity() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        exhausted = true;
+        head = null;
+        channel.close();
+    }
+}
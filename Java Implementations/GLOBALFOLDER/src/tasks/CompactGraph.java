@@ -0,0 +1,102 @@
+package tasks;
+
+import java.util.Arrays;
+
+/**
+ * Ориентированный взвешенный граф в компактном виде смежных массивов (CSR).
+ * <br>Рёбра вершины {@code v} — индексы {@code firstEdge(v) .. endEdge(v) - 1} в общих массивах
+ * целей и весов. Никаких объектов на ребро: обход соседей — проход по подряд лежащим числам.</br>
+ * <br>Граф неизменяем; строится через {@link Builder}.</br>
+ */
+public final class CompactGraph {
+    private final int[] offsets; // offsets[v] .. offsets[v + 1] — рёбра вершины v
+    private final int[] targets;
+    private final long[] weights;
+
+    private CompactGraph(int[] offsets, int[] targets, long[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public int vertexCount() { return offsets.length - 1; }
+
+    public int edgeCount() { return targets.length; }
+
+    public int firstEdge(int vertex) { return offsets[vertex]; }
+
+    public int endEdge(int vertex) { return offsets[vertex + 1]; }
+
+    public int target(int edge) { return targets[edge]; }
+
+    public long weight(int edge) { return weights[edge]; }
+
+    /**
+     * Сборщик: рёбра копятся в плоских массивах и раскладываются по вершинам
+     * подсчётом за O(V + E) в {@link #build()}.
+     */
+    public static final class Builder {
+        private final int vertices;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private long[] weights = new long[16];
+        private int edges;
+
+        /**
+         * @param vertices число вершин, они нумеруются с нуля
+         */
+        public Builder(int vertices) {
+            if (vertices < 0) throw new IllegalArgumentException("Negative number of vertices.");
+            this.vertices = vertices;
+        }
+
+        /**
+         * @param from начало ребра
+         * @param to конец ребра
+         * @param weight неотрицательный вес
+         * @return этот же сборщик
+         */
+        public Builder addEdge(int from, int to, long weight) {
+            if (from < 0 || from >= vertices || to < 0 || to >= vertices) {
+                throw new IndexOutOfBoundsException("Edge " + from + " -> " + to
+                        + " is out of " + vertices + " vertices.");
+            }
+            if (weight < 0) throw new IllegalArgumentException("Edge weight must not be negative.");
+
+            if (edges == sources.length) {
+                int newCapacity = edges + (edges >> 1);
+                sources = Arrays.copyOf(sources, newCapacity);
+                targets = Arrays.copyOf(targets, newCapacity);
+                weights = Arrays.copyOf(weights, newCapacity);
+            }
+            sources[edges] = from;
+            targets[edges] = to;
+            weights[edges] = weight;
+            edges++;
+            return this;
+        }
+
+        /**
+         * @return граф; порядок рёбер каждой вершины — порядок добавления
+         */
+        public CompactGraph build() {
+            int[] offsets = new int[vertices + 1];
+            for (int e = 0; e < edges; ++e) {
+                offsets[sources[e] + 1]++;
+            }
+            for (int v = 0; v < vertices; ++v) {
+                offsets[v + 1] += offsets[v];
+            }
+
+            int[] cursor = Arrays.copyOf(offsets, vertices);
+            int[] packedTargets = new int[edges];
+            long[] packedWeights = new long[edges];
+            for (int e = 0; e < edges; ++e) {
+                int slot = cursor[sources[e]]++;
+                packedTargets[slot] = targets[e];
+                packedWeights[slot] = weights[e];
+            }
+            return new CompactGraph(offsets, packedTargets, packedWeights);
+        }
+    }
+}
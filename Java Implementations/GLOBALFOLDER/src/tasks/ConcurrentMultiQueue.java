@@ -0,0 +1,347 @@
+package tasks;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Конкурентная очередь с приоритетом по схеме <b>MultiQueue</b>:
+ * несколько независимых куч {@link MyPriorityQueue}, каждая под своим замком.
+ * <br>Производитель кладёт элемент в случайную свободную полосу, поэтому
+ * вставки из разных потоков почти не конкурируют между собой.</br>
+ * <br>В режиме {@link Ordering#RELAXED} потребитель смотрит верхушки двух
+ * случайных полос и забирает меньшую — порядок приблизительный, зато
+ * извлечение масштабируется по ядрам. В режиме {@link Ordering#STRICT}
+ * потребитель захватывает все полосы и забирает глобальный минимум.</br>
+ * <br>Элементы {@code null} не допускаются.</br>
+ * @param <T> тип элементов
+ */
+public class ConcurrentMultiQueue<T> extends AbstractQueue<T> {
+
+    /**
+     * Гарантия порядка извлечения.
+     */
+    public enum Ordering {
+        /** Минимум из двух случайных полос: почти отсортированный порядок, высокая пропускная способность. */
+        RELAXED,
+        /** Точный глобальный минимум: потребители сериализуются, производители — нет. */
+        STRICT
+    }
+
+    /**
+     * Полоса: куча, её замок и опубликованная верхушка для чтения без захвата.
+     */
+    private static final class Stripe<T> {
+        final ReentrantLock lock = new ReentrantLock();
+        final MyPriorityQueue<T> heap;
+        volatile T top; // heap.peek() на момент последнего изменения, {@code null} — пусто
+
+        Stripe(Comparator<? super T> comparator) {
+            this.heap = new MyPriorityQueue<>(16, comparator);
+        }
+
+        void publishTop() { top = heap.peek(); }
+    }
+
+    private final Stripe<T>[] stripes;
+    private final Comparator<? super T> comparator;
+    private final Ordering ordering;
+    private final LongAdder count = new LongAdder(); // Без общей горячей ячейки, в отличие от AtomicInteger
+
+    /**
+     * Очередь с естественным порядком, ослабленной гарантией
+     * и двумя полосами на каждое ядро.
+     */
+    public ConcurrentMultiQueue() {
+        this(null);
+    }
+
+    /**
+     * Очередь с ослабленной гарантией и двумя полосами на каждое ядро.
+     * @param comparator компаратор, {@code null} — естественный порядок
+     */
+    public ConcurrentMultiQueue(Comparator<? super T> comparator) {
+        this(2 * Runtime.getRuntime().availableProcessors(), comparator, Ordering.RELAXED);
+    }
+
+    /**
+     * Конструктор с входными параметрами.
+     * @param stripeCount число полос (обычно 2–4 на поток)
+     * @param comparator компаратор, {@code null} — естественный порядок
+     * @param ordering гарантия порядка извлечения
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentMultiQueue(int stripeCount,
+                                Comparator<? super T> comparator,
+                                Ordering ordering) {
+        if (stripeCount < 1) throw new IllegalArgumentException("Stripe count must be positive.");
+
+        this.comparator = comparator;
+        this.ordering = Objects.requireNonNull(ordering);
+        this.stripes = (Stripe<T>[]) new Stripe<?>[stripeCount];
+        for (int i = 0; i < stripeCount; ++i) {
+            stripes[i] = new Stripe<>(comparator);
+        }
+    }
+
+    /**
+     * Вставка в случайную незанятую полосу; если все заняты — ждём на последней выбранной.
+     * @param element элемент, не {@code null}
+     * @return всегда {@code true}
+     */
+    @Override
+    public boolean offer(T element) {
+        Objects.requireNonNull(element);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        Stripe<T> stripe = null;
+        for (int attempt = 0; attempt < stripes.length; ++attempt) {
+            stripe = stripes[random.nextInt(stripes.length)];
+            if (stripe.lock.tryLock()) {
+                insert(stripe, element);
+                return true;
+            }
+        }
+        stripe.lock.lock();
+        insert(stripe, element);
+        return true;
+    }
+
+    private void insert(Stripe<T> stripe, T element) {
+        try {
+            stripe.heap.add(element);
+            stripe.publishTop();
+        } finally {
+            stripe.lock.unlock();
+        }
+        count.increment();
+    }
+
+    /**
+     * Извлечение минимума согласно выбранной гарантии порядка.
+     * @return элемент или {@code null}, если все полосы оказались пусты
+     */
+    @Override
+    public T poll() {
+        return (ordering == Ordering.STRICT) ? pollStrict() : pollRelaxed();
+    }
+
+    private T pollRelaxed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int attempt = 0; attempt < stripes.length; ++attempt) {
+            Stripe<T> first = stripes[random.nextInt(stripes.length)];
+            Stripe<T> second = stripes[random.nextInt(stripes.length)];
+            T firstTop = first.top;
+            T secondTop = second.top;
+
+            Stripe<T> chosen;
+            if (firstTop == null && secondTop == null) { continue; }
+            else if (firstTop == null) { chosen = second; }
+            else if (secondTop == null) { chosen = first; }
+            else { chosen = (compare(firstTop, secondTop) <= 0) ? first : second; }
+
+            if (chosen.lock.tryLock()) {
+                T element = pollLocked(chosen);
+                if (element != null) { return element; }
+            }
+        }
+
+        // Случайные попытки не удались: обходим все полосы, прежде чем признать очередь пустой.
+        int start = random.nextInt(stripes.length);
+        for (int i = 0; i < stripes.length; ++i) {
+            Stripe<T> stripe = stripes[(start + i) % stripes.length];
+            if (stripe.top == null) { continue; }
+
+            stripe.lock.lock();
+            T element = pollLocked(stripe);
+            if (element != null) { return element; }
+        }
+        return null;
+    }
+
+    /**
+     * Извлечение из уже захваченной полосы; замок отпускается здесь же.
+     */
+    private T pollLocked(Stripe<T> stripe) {
+        T element;
+        try {
+            element = stripe.heap.poll();
+            if (element != null) { stripe.publishTop(); }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (element != null) { count.decrement(); }
+        return element;
+    }
+
+    private T pollStrict() {
+        // Захватываем полосы строго по возрастанию индекса — так потребители не взаимоблокируются.
+        for (Stripe<T> stripe : stripes) { stripe.lock.lock(); }
+        try {
+            Stripe<T> best = null;
+            for (Stripe<T> stripe : stripes) {
+                T top = stripe.heap.peek();
+                if (top != null && (best == null || compare(top, best.heap.peek()) < 0)) {
+                    best = stripe;
+                }
+            }
+            if (best == null) { return null; }
+
+            T element = best.heap.poll();
+            best.publishTop();
+            count.decrement();
+            return element;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; --i) { stripes[i].lock.unlock(); }
+        }
+    }
+
+    /**
+     * Минимум среди опубликованных верхушек полос (без захвата замков).
+     * @return элемент или {@code null}, если очередь выглядит пустой
+     */
+    @Override
+    public T peek() {
+        T best = null;
+        for (Stripe<T> stripe : stripes) {
+            T top = stripe.top;
+            if (top != null && (best == null || compare(top, best) < 0)) {
+                best = top;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Приблизительный размер: точен только в отсутствие параллельных изменений.
+     */
+    @Override
+    public int size() {
+        long sum = count.sum();
+        return (int) Math.max(0, Math.min(sum, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Stripe<T> stripe : stripes) {
+            if (stripe.top != null) { return false; }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        for (Stripe<T> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (stripe.heap.contains(o)) { return true; }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        for (Stripe<T> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (stripe.heap.remove(o)) {
+                    stripe.publishTop();
+                    count.decrement();
+                    return true;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe<T> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                count.add(-stripe.heap.size());
+                stripe.heap.clear();
+                stripe.publishTop();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Удаление по условию: каждая полоса фильтруется под своим замком и перестраивается целиком.
+     * <br>Полосы обходятся по очереди, поэтому элементы, вставленные во время обхода
+     * в уже пройденные полосы, не проверяются.</br>
+     * @param filter условие удаления
+     * @return {@code true}, если что-то удалено
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+        boolean removed = false;
+        for (Stripe<T> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                int before = stripe.heap.size();
+                if (stripe.heap.removeIf(filter)) {
+                    stripe.publishTop();
+                    count.add(stripe.heap.size() - before);
+                    removed = true;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(element -> !c.contains(element));
+    }
+
+    /**
+     * Слабо согласованный итератор по снимку: полосы копируются по очереди,
+     * порядок — произвольный. Удаление через итератор не поддерживается —
+     * для массового удаления есть {@link #removeIf}, {@link #removeAll} и {@link #retainAll}.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        List<T> snapshot = new ArrayList<>();
+        for (Stripe<T> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.heap.forEach(snapshot::add);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    /**
+     * @return гарантия порядка извлечения
+     */
+    public Ordering ordering() { return this.ordering; }
+
+    @SuppressWarnings("unchecked")
+    private int compare(T o1, T o2) {
+        if (comparator != null) return comparator.compare(o1, o2);
+        return ((Comparable<? super T>) o1).compareTo(o2);
+    }
+}
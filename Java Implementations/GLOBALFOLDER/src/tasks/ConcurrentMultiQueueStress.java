@@ -0,0 +1,111 @@
+package tasks;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Нагрузочная проверка {@link ConcurrentMultiQueue}: производители кладут
+ * непересекающиеся диапазоны чисел, потребители забирают всё до последнего.
+ * <br>В конце каждое число должно быть извлечено ровно один раз —
+ * иначе программа завершается с ненулевым кодом. Потерянный элемент не подвешивает прогон:
+ * когда производители закончили, потребитель сдаётся после серии пустых извлечений.</br>
+ * <br>Запуск: {@code java tasks.ConcurrentMultiQueueStress [элементов] [макс. потоков]}</br>
+ */
+public class ConcurrentMultiQueueStress {
+    private static final int EMPTY_POLLS_LIMIT = 1_000; // Пустых poll() подряд после производителей — очередь пуста
+    public static void main(String... args) throws InterruptedException {
+        int total = (args.length > 0) ? Integer.parseInt(args[0]) : 2_000_000;
+        int maxThreads = (args.length > 1)
+                ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        for (ConcurrentMultiQueue.Ordering ordering : ConcurrentMultiQueue.Ordering.values()) {
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                run(ordering, threads, total);
+            }
+        }
+        System.out.println("All runs passed.");
+    }
+
+    /**
+     * Один прогон: {@code threads} производителей и столько же потребителей.
+     */
+    private static void run(ConcurrentMultiQueue.Ordering ordering,
+                            int threads,
+                            int total) throws InterruptedException {
+        ConcurrentMultiQueue<Integer> queue =
+                new ConcurrentMultiQueue<>(2 * threads, null, ordering);
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch produced = new CountDownLatch(threads);
+
+        Thread[] workers = new Thread[2 * threads];
+        for (int p = 0; p < threads; ++p) {
+            int from = (int) ((long) total * p / threads);
+            int to = (int) ((long) total * (p + 1) / threads);
+            workers[p] = new Thread(() -> {
+                await(start);
+                for (int value = from; value < to; ++value) {
+                    queue.offer(value);
+                }
+                produced.countDown();
+            });
+        }
+        for (int c = 0; c < threads; ++c) {
+            workers[threads + c] = new Thread(() -> {
+                await(start);
+                int emptyPolls = 0;
+                while (consumed.get() < total) {
+                    Integer value = queue.poll();
+                    if (value == null) {
+                        if (produced.getCount() == 0 && ++emptyPolls >= EMPTY_POLLS_LIMIT) { break; }
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    emptyPolls = 0;
+                    seen.incrementAndGet(value);
+                    consumed.incrementAndGet();
+                }
+            });
+        }
+
+        for (Thread worker : workers) { worker.start(); }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) { worker.join(); }
+        long elapsed = System.nanoTime() - begin;
+
+        if (consumed.get() < total) {
+            System.err.printf("%s, %d threads: %d of %d elements were never extracted%n",
+                    ordering, threads, total - consumed.get(), total);
+            System.exit(3);
+        }
+
+        for (int value = 0; value < total; ++value) {
+            int times = seen.get(value);
+            if (times != 1) {
+                System.err.printf("%s, %d threads: value %d extracted %d times%n",
+                        ordering, threads, value, times);
+                System.exit(1);
+            }
+        }
+        if (!queue.isEmpty()) {
+            System.err.printf("%s, %d threads: queue is not empty after drain%n", ordering, threads);
+            System.exit(2);
+        }
+
+        System.out.printf(Locale.US, "%-7s %2d producers / %2d consumers: %8.1f ops/ms%n",
+                ordering, threads, threads, 2.0 * total / (elapsed / 1e6));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
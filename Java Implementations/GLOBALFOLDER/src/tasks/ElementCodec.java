@@ -0,0 +1,69 @@
+package tasks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Преобразование элементов очереди в байты и обратно — для сброса на диск и чтения назад.
+ * <br>Записи в файлах хранятся как {@code [int длина][байты]}, поэтому кодек
+ * должен заранее знать размер элемента и уметь прочитать ровно столько байт.</br>
+ * @param <T> тип элементов
+ */
+public interface ElementCodec<T> {
+
+    /**
+     * @param element элемент
+     * @return число байт, которое займёт элемент
+     */
+    int encodedSize(T element);
+
+    /**
+     * Запись элемента в буфер начиная с его текущей позиции.
+     * @param element элемент
+     * @param target буфер, в котором есть хотя бы {@code encodedSize(element)} свободных байт
+     */
+    void encode(T element, ByteBuffer target);
+
+    /**
+     * Чтение элемента из буфера: от позиции до предела лежат ровно его байты.
+     * @param source буфер с байтами одного элемента
+     * @return элемент
+     */
+    T decode(ByteBuffer source);
+
+    ElementCodec<Long> LONG = new ElementCodec<>() {
+        @Override public int encodedSize(Long element) { return Long.BYTES; }
+        @Override public void encode(Long element, ByteBuffer target) { target.putLong(element); }
+        @Override public Long decode(ByteBuffer source) { return source.getLong(); }
+    };
+
+    ElementCodec<Integer> INTEGER = new ElementCodec<>() {
+        @Override public int encodedSize(Integer element) { return Integer.BYTES; }
+        @Override public void encode(Integer element, ByteBuffer target) { target.putInt(element); }
+        @Override public Integer decode(ByteBuffer source) { return source.getInt(); }
+    };
+
+    ElementCodec<Double> DOUBLE = new ElementCodec<>() {
+        @Override public int encodedSize(Double element) { return Double.BYTES; }
+        @Override public void encode(Double element, ByteBuffer target) { target.putDouble(element); }
+        @Override public Double decode(ByteBuffer source) { return source.getDouble(); }
+    };
+
+    /**
+     * Строки в UTF-8. Размер считается по самой строке, поэтому кодирование идёт в два прохода —
+     * для горячих путей лучше свой кодек с фиксированным размером.
+     */
+    ElementCodec<String> UTF8_STRING = new ElementCodec<>() {
+        @Override public int encodedSize(String element) {
+            return element.getBytes(StandardCharsets.UTF_8).length;
+        }
+        @Override public void encode(String element, ByteBuffer target) {
+            target.put(element.getBytes(StandardCharsets.UTF_8));
+        }
+        @Override public String decode(ByteBuffer source) {
+            byte[] bytes = new byte[source.remaining()];
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+}
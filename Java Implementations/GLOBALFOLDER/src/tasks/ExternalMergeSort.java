@@ -0,0 +1,256 @@
+package tasks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Внешняя сортировка и k-путевое слияние данных, которые не помещаются в память.
+ * <br>Файлы — прогоны в формате {@link RunWriter}: {@code [int длина][байты]}.
+ * Слияние открывает до {@code fanIn} отсортированных прогонов через буферизованные каналы
+ * ({@link ChannelRunReader}) и держит их курсоры в {@link MinHeap}, упорядоченной по голове.
+ * После выдачи элемента курсор продвигается и возвращается на место одним
+ * {@link MinHeap#replaceTop(Comparable)} — без пары {@code poll()} + {@code add()}.</br>
+ * <br>Если прогонов больше {@code fanIn}, они сливаются в несколько проходов через
+ * промежуточные файлы. Память — {@code runLength} элементов при сортировке и по одному
+ * буферу на открытый прогон при слиянии.</br>
+ * <br>Сортировка устойчива: прогоны сортируются устойчиво, а при равных головах
+ * первым идёт прогон с меньшим номером.</br>
+ * @param <T> тип элементов
+ */
+public class ExternalMergeSort<T> {
+    private static final int DEFAULT_FAN_IN = 128;
+    private static final int READ_BUFFER_BYTES = 256 << 10; // Буфер чтения на прогон
+
+    private final Comparator<? super T> comparator;
+    private final ElementCodec<T> codec;
+    private final int runLength; // Элементов в одном прогоне при сортировке
+    private final int fanIn;     // Прогонов, сливаемых за один проход
+    private final Path directory;
+
+    /**
+     * Приёмник слияния: запись в файл может бросить {@link IOException}.
+     */
+    private interface Sink<T> {
+        void accept(T element) throws IOException;
+    }
+
+    /**
+     * Курсор прогона в куче слияния: сравнивается по голове, при равенстве — по номеру прогона.
+     */
+    private static final class Cursor<T> implements Comparable<Cursor<T>> {
+        final ChannelRunReader<T> reader;
+        final int order;
+        final Comparator<? super T> comparator;
+
+        Cursor(ChannelRunReader<T> reader, int order, Comparator<? super T> comparator) {
+            this.reader = reader;
+            this.order = order;
+            this.comparator = comparator;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compareTo(Cursor<T> other) {
+            int result = (comparator != null)
+                    ? comparator.compare(reader.head(), other.reader.head())
+                    : ((Comparable<? super T>) reader.head()).compareTo(other.reader.head());
+            return (result != 0) ? result : Integer.compare(order, other.order);
+        }
+    }
+
+    /**
+     * @param comparator компаратор, {@code null} — естественный порядок
+     * @param codec кодек элементов
+     * @param runLength сколько элементов сортировать в памяти за раз
+     * @param directory каталог для временных прогонов
+     */
+    public ExternalMergeSort(Comparator<? super T> comparator,
+                             ElementCodec<T> codec,
+                             int runLength,
+                             Path directory) {
+        this(comparator, codec, runLength, DEFAULT_FAN_IN, directory);
+    }
+
+    /**
+     * @param fanIn сколько прогонов сливать за один проход (не меньше 2)
+     */
+    public ExternalMergeSort(Comparator<? super T> comparator,
+                             ElementCodec<T> codec,
+                             int runLength,
+                             int fanIn,
+                             Path directory) {
+        if (runLength < 1) throw new IllegalArgumentException("Run length must be positive.");
+        if (fanIn < 2) throw new IllegalArgumentException("Fan-in must be at least 2.");
+
+        this.comparator = comparator;
+        this.codec = Objects.requireNonNull(codec);
+        this.runLength = runLength;
+        this.fanIn = fanIn;
+        this.directory = Objects.requireNonNull(directory);
+    }
+
+    /**
+     * Полная внешняя сортировка: вход режется на отсортированные прогоны, затем они сливаются.
+     * @param input элементы в любом порядке
+     * @param output файл результата в формате прогона
+     * @return число элементов
+     * @throws IOException при ошибке ввода-вывода; временные файлы удаляются в любом случае
+     */
+    public long sort(Iterator<? extends T> input, Path output) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try {
+            createRuns(input, runs);
+            return merge(runs, output);
+        } finally {
+            deleteAll(runs);
+        }
+    }
+
+    /**
+     * Слияние отсортированных прогонов в один файл. Исходные файлы не трогаются.
+     * @param sortedRuns прогоны, каждый отсортирован тем же компаратором
+     * @param output файл результата
+     * @return число элементов
+     */
+    public long merge(List<Path> sortedRuns, Path output) throws IOException {
+        List<Path> intermediate = new ArrayList<>();
+        try (RunWriter<T> writer = new RunWriter<>(output, codec)) {
+            mergeInto(reduce(sortedRuns, intermediate), writer::write);
+            return writer.count();
+        } finally {
+            deleteAll(intermediate);
+        }
+    }
+
+    /**
+     * Слияние с выдачей элементов по одному — без файла результата.
+     * @param sortedRuns прогоны, каждый отсортирован тем же компаратором
+     * @param sink получатель элементов в отсортированном порядке
+     * @return число элементов
+     */
+    public long merge(List<Path> sortedRuns, Consumer<? super T> sink) throws IOException {
+        List<Path> intermediate = new ArrayList<>();
+        try {
+            return mergeInto(reduce(sortedRuns, intermediate), sink::accept);
+        } finally {
+            deleteAll(intermediate);
+        }
+    }
+
+    /**
+     * Нарезка входа на отсортированные прогоны по {@code runLength} элементов.
+     */
+    @SuppressWarnings("unchecked")
+    private void createRuns(Iterator<? extends T> input, List<Path> runs) throws IOException {
+        T[] chunk = (T[]) new Object[runLength];
+        while (input.hasNext()) {
+            int count = 0;
+            while (count < runLength && input.hasNext()) {
+                chunk[count++] = input.next();
+            }
+            if (comparator != null) {
+                Arrays.sort(chunk, 0, count, comparator);
+            } else {
+                Arrays.sort(chunk, 0, count);
+            }
+
+            Path run = Files.createTempFile(directory, "sort-", ".run");
+            runs.add(run);
+            try (RunWriter<T> writer = new RunWriter<>(run, codec)) {
+                for (int i = 0; i < count; ++i) {
+                    writer.write(chunk[i]);
+                }
+            }
+            Arrays.fill(chunk, 0, count, null);
+        }
+    }
+
+    /**
+     * Промежуточные проходы, пока прогонов больше {@code fanIn}.
+     * <br>Промежуточный файл удаляется, как только его группа слита, — на диске одновременно
+     * лежат не больше двух поколений промежуточных прогонов, а не все проходы сразу.</br>
+     * @param intermediate сюда попадают созданные и ещё не удалённые временные файлы
+     * @return не больше {@code fanIn} прогонов для последнего прохода
+     */
+    private List<Path> reduce(List<Path> runs, List<Path> intermediate) throws IOException {
+        while (runs.size() > fanIn) {
+            List<Path> next = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += fanIn) {
+                List<Path> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+                if (group.size() == 1) {
+                    next.add(group.get(0));
+                    continue;
+                }
+
+                Path merged = Files.createTempFile(directory, "merge-", ".run");
+                intermediate.add(merged);
+                try (RunWriter<T> writer = new RunWriter<>(merged, codec)) {
+                    mergeInto(group, writer::write);
+                }
+                next.add(merged);
+                for (Path consumed : group) {
+                    if (intermediate.remove(consumed)) { // Исходные прогоны вызывающего не трогаем
+                        Files.deleteIfExists(consumed);
+                    }
+                }
+            }
+            runs = next;
+        }
+        return runs;
+    }
+
+    /**
+     * Один проход k-путевого слияния.
+     */
+    @SuppressWarnings("unchecked")
+    private long mergeInto(List<Path> runs, Sink<? super T> sink) throws IOException {
+        MinHeap<Cursor<T>> heap = new MinHeap<>(length -> (Cursor<T>[]) new Cursor<?>[length]);
+        List<ChannelRunReader<T>> readers = new ArrayList<>(runs.size());
+        long count = 0;
+        try {
+            for (Path run : runs) {
+                ChannelRunReader<T> reader = new ChannelRunReader<>(run, codec, READ_BUFFER_BYTES);
+                readers.add(reader);
+                if (!reader.isExhausted()) {
+                    heap.add(new Cursor<>(reader, readers.size() - 1, comparator));
+                }
+            }
+
+            while (!heap.isEmpty()) {
+                Cursor<T> top = heap.peek();
+                sink.accept(top.reader.head());
+                count++;
+
+                top.reader.advance();
+                if (top.reader.isExhausted()) {
+                    heap.poll();
+                } else {
+                    heap.replaceTop(top); // Голова сменилась — спускаем курсор на своё место
+                }
+            }
+        } finally {
+            // Каналы только для чтения: ошибка закрытия не теряет данных и не должна скрыть исходную.
+            for (ChannelRunReader<T> reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void deleteAll(List<Path> files) throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
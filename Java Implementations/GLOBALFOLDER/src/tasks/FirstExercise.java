@@ -1,81 +1,57 @@
 package tasks;
 
 import java.io.*;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.*;
+import java.util.Locale;
 
 public class FirstExercise {
     public static void main(String... args) throws IOException {
         Path path = Paths.get("importantFiles/task1.txt");
-        try {
-            List<Double> tokens = readAll(path);
-            if (tokens.isEmpty()) {
+        try (NumberTokenizer in = new NumberTokenizer(path, FirstExercise::nonNumeric)) {
+            if (!in.next()) {
                 System.err.println("Empty or invalid!");
                 System.exit(1);
             }
 
-            Iterator<Double> it = tokens.iterator();
-            int N = (int) Math.round(it.next());
-            if (N <= 0) {
+            long dimension = Math.round(in.value()); // long: огромное N не должно обернуться через int
+            if (dimension <= 0) {
                 System.err.println("Invalid dimension.");
                 System.exit(2);
             }
-
-            int needNums = N * N + N;
-            if (tokens.size() - 1 < needNums) {
-                System.err.printf("Not enough nums in input: " +
-                        "expected %d matrix+vector nums, got %d.%n",
-                        needNums, tokens.size() - 1);
-                System.exit(3);
+            if (dimension > SymmetricMatrix.MAX_DIMENSION) {
+                System.err.printf("Dimension %d is too large: at most %d is supported.%n",
+                        dimension, SymmetricMatrix.MAX_DIMENSION);
+                System.exit(2);
             }
+            int N = (int) dimension;
 
-            double[][] G = new double[N][N];
+            // Числа читаются сразу в итоговые массивы, без промежуточного списка.
+            // Матрица хранится треугольником, симметрия проверяется по мере чтения строк.
+            long needNums = (long) N * N + N;
+            double eps = 1e-9;
+            SymmetricMatrix G = new SymmetricMatrix(N);
+            double[] row = new double[N];
             for (int i = 0; i < N; i++) {
-                for (int j = 0; j < N; ++j) {
-                    if (!it.hasNext()) {
-                        errorInput();
-                    }
-                    G[i][j] = it.next();
+                if (in.read(row) < N) {
+                    notEnough(needNums, in.count() - 1);
+                }
+                int j = G.loadRow(i, row, eps);
+                if (j >= 0) {
+                    System.err.printf("Matrix G is not symmetric:" +
+                            " G[%d][%d] = %f, G[%d][%d] = %f%n",
+                            j, i, G.get(j, i), i, j, row[j]);
+                    System.exit(4);
                 }
             }
 
             // Vector x
             double[] x = new double[N];
-            for (int i = 0; i < N; ++i) {
-                if (!it.hasNext()) {
-                    errorInput();
-                }
-                x[i] = it.next();
+            if (in.read(x) < N) {
+                notEnough(needNums, in.count() - 1);
             }
 
-            // Symmetric
-            double eps = 1e-9;
-            for (int i = 0; i < N; ++i) {
-                for (int j = 0; j < N; ++j) {
-                    if (Math.abs(G[i][j] - G[j][i]) > eps) {
-                        System.err.printf("Matrix G is not symmetric:" +
-                                " G[%d][%d] = %f, G[%d][%d] = %f%n",
-                                i, j, G[i][j], j, i, G[j][i]);
-                        System.exit(4);
-                    }
-                }
-            }
-
-            // y = G * x
-            double[] y = new double[N];
-            for (int i = 0; i < N; ++i) {
-                double sum = 0.0;
-                for (int j = 0; j < N; ++j) {
-                    sum += G[i][j] * x[j];
-                }
-                y[i] = sum;
-            }
-
-            // s = x^T * y
-            double s = 0.0;
-            for (int i = 0; i < N; ++i) { s += x[i] * y[i]; }
+            double s = new MatVecKernel().quadraticForm(G, x);
 
             if (s < -1e-12) {
                 System.err.println("Warning: quadtratic form is negative!");
@@ -89,38 +65,39 @@ public class FirstExercise {
         }
     }
 
-    private static void errorInput() {
-        System.err.println("Bad formatting or unexpected token!");
-        System.exit(12);
-    }
-
     /**
-     * Считывание всех чисел из файла в порядке появления.
+     * Квадратичная форма {@code s = xᵀ·(G·x)}: сначала {@code y = G·x}, затем скалярное произведение.
+     * @param G квадратная матрица N×N
+     * @param x вектор длины N
+     * @return значение формы
      */
-    private static List<Double> readAll(Path path)
-        throws IOException {
-        List<Double> lout = new ArrayList<>();
-        try (BufferedReader br = Files.newBufferedReader(path)) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) { continue; }
+    static double quadraticForm(double[][] G, double[] x) {
+        int N = x.length;
 
-                // \s - любой пробельный символ
-                //  + - несколько раз
-                String[] parts = line.split("\\s+");
-
-                for (String p : parts) {
-                    if (p.isEmpty()) { continue; }
-                    try {
-                        lout.add(Double.parseDouble(p));
-                    } catch (NumberFormatException ex) {
-                        System.err.println("Non-numeric token ignored: '" +
-                                p + "'");
-                    }
-                }
+        // y = G * x
+        double[] y = new double[N];
+        for (int i = 0; i < N; ++i) {
+            double sum = 0.0;
+            for (int j = 0; j < N; ++j) {
+                sum += G[i][j] * x[j];
             }
+            y[i] = sum;
         }
-        return lout;
+
+        // s = x^T * y
+        double s = 0.0;
+        for (int i = 0; i < N; ++i) { s += x[i] * y[i]; }
+        return s;
+    }
+
+    private static void notEnough(long needNums, long got) {
+        System.err.printf("Not enough nums in input: " +
+                "expected %d matrix+vector nums, got %d.%n",
+                needNums, got);
+        System.exit(3);
+    }
+
+    private static void nonNumeric(String token) {
+        System.err.println("Non-numeric token ignored: '" + token + "'");
     }
 }
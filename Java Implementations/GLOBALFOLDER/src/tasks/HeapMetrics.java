@@ -0,0 +1,149 @@
+package tasks;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Счётчики горячего пути куч: сравнения, обмены, рост массива и глубина просеиваний.
+ * <br>Включаются свойством {@code -Dtasks.heap.metrics=true}. Флаг {@link #ENABLED} —
+ * статическая константа, поэтому при выключенных метриках JIT выбрасывает проверки
+ * целиком и куча работает как раньше.</br>
+ * <br>Дополнительно пишутся события JDK Flight Recorder: {@code tasks.HeapResize} на
+ * каждый рост массива и {@code tasks.LongSift} на просеивание глубже порога
+ * {@code -Dtasks.heap.metrics.longSift} (по умолчанию 16 уровней). Их видно в записи
+ * {@code -XX:StartFlightRecording}, когда метрики включены.</br>
+ * <br>Счётчики общие для всех куч процесса и безопасны для многих потоков.</br>
+ */
+public final class HeapMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("tasks.heap.metrics");
+
+    private static final int LONG_SIFT_DEPTH = Integer.getInteger("tasks.heap.metrics.longSift", 16);
+    private static final int MAX_DEPTH = 64; // Более глубокие просеивания попадают в последнюю ячейку
+
+    private static final LongAdder COMPARISONS = new LongAdder();
+    private static final LongAdder SWAPS = new LongAdder();
+    private static final LongAdder RESIZES = new LongAdder();
+    private static final LongAdder[] SIFT_DEPTHS = new LongAdder[MAX_DEPTH + 1];
+
+    static {
+        for (int i = 0; i < SIFT_DEPTHS.length; ++i) {
+            SIFT_DEPTHS[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Направление просеивания.
+     */
+    enum Sift { UP, DOWN }
+
+    @Name("tasks.HeapResize")
+    @Label("Heap Resize")
+    @Category("Heaps")
+    @Description("Backing array of a heap has been reallocated")
+    static final class ResizeEvent extends Event {
+        @Label("Heap") String heap;
+        @Label("Old Capacity") int oldCapacity;
+        @Label("New Capacity") int newCapacity;
+    }
+
+    @Name("tasks.LongSift")
+    @Label("Long Sift")
+    @Category("Heaps")
+    @Description("Sift went deeper than the configured threshold")
+    static final class LongSiftEvent extends Event {
+        @Label("Heap") String heap;
+        @Label("Direction") String direction;
+        @Label("Depth") int depth;
+        @Label("Size") int size;
+    }
+
+    private HeapMetrics() { }
+
+    /*
+        Точки вызова из куч. Вызывать только под проверкой ENABLED.
+    */
+    static void comparison() { COMPARISONS.increment(); }
+
+    static void swap() { SWAPS.increment(); }
+
+    static void resize(String heap, int oldCapacity, int newCapacity) {
+        RESIZES.increment();
+
+        ResizeEvent event = new ResizeEvent();
+        if (event.isEnabled()) {
+            event.heap = heap;
+            event.oldCapacity = oldCapacity;
+            event.newCapacity = newCapacity;
+            event.commit();
+        }
+    }
+
+    static void sift(String heap, Sift direction, int depth, int size) {
+        SIFT_DEPTHS[Math.min(depth, MAX_DEPTH)].increment();
+        if (depth < LONG_SIFT_DEPTH) { return; }
+
+        LongSiftEvent event = new LongSiftEvent();
+        if (event.isEnabled()) {
+            event.heap = heap;
+            event.direction = direction.name();
+            event.depth = depth;
+            event.size = size;
+            event.commit();
+        }
+    }
+
+    /*
+        Чтение и сброс
+    */
+    public static long comparisons() { return COMPARISONS.sum(); }
+
+    public static long swaps() { return SWAPS.sum(); }
+
+    public static long resizes() { return RESIZES.sum(); }
+
+    /**
+     * @return гистограмма: элемент {@code i} — сколько просеиваний прошло ровно {@code i} уровней
+     * (последний элемент — {@value #MAX_DEPTH} и больше)
+     */
+    public static long[] siftDepthHistogram() {
+        long[] histogram = new long[SIFT_DEPTHS.length];
+        for (int i = 0; i < histogram.length; ++i) {
+            histogram[i] = SIFT_DEPTHS[i].sum();
+        }
+        return histogram;
+    }
+
+    public static void reset() {
+        COMPARISONS.reset();
+        SWAPS.reset();
+        RESIZES.reset();
+        for (LongAdder depth : SIFT_DEPTHS) {
+            depth.reset();
+        }
+    }
+
+    /**
+     * @return краткая сводка счётчиков и ненулевых ячеек гистограммы
+     */
+    public static String report() {
+        StringBuilder builder = new StringBuilder()
+                .append("comparisons=").append(comparisons())
+                .append(", swaps=").append(swaps())
+                .append(", resizes=").append(resizes())
+                .append(", sift depths={");
+        long[] histogram = siftDepthHistogram();
+        boolean first = true;
+        for (int depth = 0; depth < histogram.length; ++depth) {
+            if (histogram[depth] == 0) { continue; }
+            if (!first) { builder.append(", "); }
+            builder.append(depth).append('=').append(histogram[depth]);
+            first = false;
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,286 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Очередь с приоритетом над примитивными {@code long} на основе минимальной кучи.
+ * <br>Ключи лежат прямо в {@code long[]}: ни добавление, ни извлечение не создают
+ * объектов-обёрток, мусор появляется только при росте массива.</br>
+ * @see MyPriorityQueue
+ */
+public class LongPriorityQueue {
+
+    /**
+     * Компаратор над примитивами, чтобы не упаковывать ключи в {@code Long}.
+     */
+    @FunctionalInterface
+    public interface LongComparator {
+        int compare(long first, long second);
+    }
+
+    private long[] heap;                    // Массив ключей (сама куча)
+    private int size;                       // Текущая размерность, "курсор" заполнения.
+    private final LongComparator comparator; // Компаратор, {@code null} — естественный порядок
+
+    private static final int DEFAULT_CAPACITY = 12; // Размерность по умолчанию
+
+    /**
+     * Конструктор без параметров: естественный порядок и ёмкость по умолчанию.
+     */
+    public LongPriorityQueue() {
+        this(DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Конструктор с параметром ёмкости.
+     * @param initCapacity входная ёмкость
+     */
+    public LongPriorityQueue(int initCapacity) {
+        this(initCapacity, null);
+    }
+
+    /**
+     * Конструктор с входными параметрами.
+     * @param initCapacity входная ёмкость
+     * @param comparator компаратор для сравнения ключей
+     */
+    public LongPriorityQueue(int initCapacity, LongComparator comparator) {
+        if (initCapacity < 1) throw new IllegalArgumentException("Negative dimension of heap.");
+
+        this.heap = new long[initCapacity];
+        this.size = 0;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Конструктор, строящий кучу из массива за линейное время.
+     * @param another массив ключей, которые мы хотим затолкать в кучу
+     * @param comp компаратор сравнения
+     */
+    public LongPriorityQueue(long[] another, LongComparator comp) {
+        this.comparator = comp;
+        if (another == null) {
+            this.heap = new long[DEFAULT_CAPACITY];
+            this.size = 0;
+        } else {
+            this.heap = Arrays.copyOf(another, Math.max(DEFAULT_CAPACITY, another.length));
+            this.size = another.length;
+            heapifyAll();
+        }
+    }
+
+    /**
+     * Конструктор, строящий кучу из массива в естественном порядке.
+     * @param another массив ключей
+     */
+    public LongPriorityQueue(long[] another) {
+        this(another, null);
+    }
+
+    /**
+     * Конструктор копирования.
+     * @param other другая куча
+     */
+    public LongPriorityQueue(LongPriorityQueue other) {
+        this.heap = Arrays.copyOf(other.heap, other.heap.length);
+        this.size = other.size;
+        this.comparator = other.comparator;
+    }
+
+    /**
+     * Просмотр верхушки без удаления.
+     * @return минимальный ключ
+     * @throws NoSuchElementException если куча пуста
+     */
+    public long peek() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Добавление ключа в кучу.
+     * @param key ключ
+     * @return всегда {@code true}
+     */
+    public boolean add(long key) {
+        extraEnsureCapacity(size + 1);
+        siftUp(size++, key);
+        return true;
+    }
+
+    /**
+     * Аналог {@code add()} — очередь неограниченная.
+     * @param key ключ
+     * @return логическое значение успешности вставки
+     */
+    public boolean offer(long key) { return add(key); }
+
+    /**
+     * Добавление нескольких ключей за одно расширение массива.
+     * @param keys ключи
+     */
+    public void addAll(long... keys) {
+        extraEnsureCapacity(size + keys.length);
+        for (long key : keys) {
+            siftUp(size++, key);
+        }
+    }
+
+    /**
+     * Извлечение минимального ключа.
+     * @return ключ с верхушки кучи
+     * @throws NoSuchElementException если куча пуста
+     */
+    public long poll() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+
+        long minimum = heap[0];
+        long last = heap[--size];
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return minimum;
+    }
+
+    /**
+     * Удаляет одно вхождение ключа и перестраивает кучу.
+     * @param key ключ
+     * @return {@code true}, если ключ был найден
+     */
+    public boolean remove(long key) {
+        for (int i = 0; i < size; ++i) {
+            if (heap[i] == key) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Проверка на принадлежность ключа куче.
+     * @param key ключ
+     * @return {@code true}, если содержится
+     */
+    public boolean contains(long key) {
+        for (int i = 0; i < size; ++i) {
+            if (heap[i] == key) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Слияние с другой кучей: ключи дописываются в конец и куча перестраивается за O(n + m).
+     * @param other другая куча, остаётся неизменной
+     */
+    public void merge(LongPriorityQueue other) {
+        int newSize = this.size + other.size;
+        extraEnsureCapacity(newSize);
+        System.arraycopy(other.heap, 0, this.heap, this.size, other.size);
+        this.size = newSize;
+        heapifyAll();
+    }
+
+    /**
+     * Очистка кучи. Массив не освобождается, чтобы переиспользовать его.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    public int size() { return this.size; }
+
+    public boolean isEmpty() { return this.size == 0; }
+
+    /**
+     * Копирование в массив (в порядке кучи, а не в отсортированном).
+     * @return массив ключей
+     */
+    public long[] toArray() { return Arrays.copyOf(heap, size); }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Построение кучи по Флойду за линейное время.
+     */
+    private void heapifyAll() {
+        for (int i = (size >>> 1) - 1; i >= 0; --i) {
+            siftDown(i, heap[i]);
+        }
+    }
+
+    private void removeAt(int index) {
+        long last = heap[--size];
+        if (index == size) { return; }
+
+        if (siftDown(index, last) == index) {
+            siftUp(index, last);
+        }
+    }
+
+    /**
+     * Подъём ключа «дыркой»: родители сдвигаются вниз, а ключ пишется один раз в конце.
+     * @param index индекс свободной ячейки
+     * @param key поднимаемый ключ
+     */
+    private void siftUp(int index, long key) {
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            long parent = heap[parentIndex];
+            if (compare(parent, key) <= 0) { break; }
+
+            heap[index] = parent;
+            index = parentIndex;
+        }
+        heap[index] = key;
+    }
+
+    /**
+     * Спуск ключа «дыркой» от заданного индекса.
+     * @param index индекс свободной ячейки
+     * @param key опускаемый ключ
+     * @return индекс, на котором остановился ключ
+     */
+    private int siftDown(int index, long key) {
+        int half = size >>> 1; // У узлов с индексом меньше half есть хотя бы левый ребёнок
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            long child = heap[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < size && compare(heap[rightIndex], child) < 0) {
+                childIndex = rightIndex;
+                child = heap[rightIndex];
+            }
+            if (compare(key, child) <= 0) { break; }
+
+            heap[index] = child;
+            index = childIndex;
+        }
+        heap[index] = key;
+        return index;
+    }
+
+    /**
+     * Увеличение ёмкости до требуемой (в полтора раза, чтобы не расти поэлементно).
+     * @param required требуемая ёмкость
+     */
+    private void extraEnsureCapacity(int required) {
+        if (required > heap.length) {
+            int newCapacity = Math.max(required, heap.length + (heap.length >> 1));
+            heap = Arrays.copyOf(heap, newCapacity);
+        }
+    }
+
+    private int compare(long first, long second) {
+        if (comparator != null) return comparator.compare(first, second);
+        return Long.compare(first, second);
+    }
+}
@@ -0,0 +1,122 @@
+package tasks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Checksum;
+
+/**
+ * Последовательное чтение прогона, записанного {@link RunWriter}, через отображение файла в память.
+ * <br>Файл отображается скользящим окном, так что прогон может быть больше 2 ГБ,
+ * а в адресном пространстве одновременно держится только окно.</br>
+ * <br>Курсор всегда стоит на очередном элементе: {@link #head()} — без продвижения,
+ * {@link #advance()} — переход к следующему.</br>
+ * @param <T> тип элементов
+ */
+final class MappedRunReader<T> implements Closeable {
+    private static final long WINDOW_BYTES = 8L << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final ElementCodec<T> codec;
+    private final Checksum checksum; // {@code null} — без контрольной суммы
+
+    private MappedByteBuffer window;
+    private long windowStart;     // Смещение окна в файле
+    private T head;               // Текущий элемент
+    private long headOffset;      // Смещение записи текущего элемента в файле
+    private boolean exhausted;    // Элементы закончились
+
+    MappedRunReader(Path path, ElementCodec<T> codec) throws IOException {
+        this(path, codec, 0, null);
+    }
+
+    /**
+     * @param offset с какого байта файла начинаются записи
+     * @param checksum сумма, которую обновляют все прочитанные байты записей, или {@code null}
+     */
+    MappedRunReader(Path path, ElementCodec<T> codec, long offset, Checksum checksum) throws IOException {
+        this.path = path;
+        this.codec = codec;
+        this.checksum = checksum;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        if (offset > fileSize) {
+            channel.close();
+            throw new IOException("Truncated run file: " + path);
+        }
+        remap(offset, 0);
+        advance();
+    }
+
+    /**
+     * @return текущий элемент
+     * @throws IllegalStateException если прогон исчерпан
+     */
+    T head() {
+        if (exhausted) throw new IllegalStateException("Run is exhausted.");
+        return head;
+    }
+
+    boolean isExhausted() { return exhausted; }
+
+    Path path() { return path; }
+
+    /**
+     * @return смещение записи текущего элемента — с него другой читатель продолжит тот же прогон
+     */
+    long headOffset() { return headOffset; }
+
+    /**
+     * Переход к следующему элементу.
+     */
+    void advance() throws IOException {
+        headOffset = windowStart + window.position();
+        if (headOffset >= fileSize) {
+            exhausted = true;
+            head = null;
+            return;
+        }
+
+        ensure(Integer.BYTES);
+        if (checksum != null) { checksum.update(window.slice(window.position(), Integer.BYTES)); }
+        int length = window.getInt();
+        if (length < 0) throw new IOException("Corrupted record length in " + path);
+        ensure(length);
+        ByteBuffer slice = window.slice(window.position(), length);
+        if (checksum != null) { checksum.update(slice.duplicate()); }
+        head = codec.decode(slice);
+        window.position(window.position() + length);
+    }
+
+    /**
+     * Гарантия, что в окне осталось не меньше {@code bytes} байт; иначе окно сдвигается.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (window.remaining() >= bytes) { return; }
+
+        long position = windowStart + window.position();
+        if (position + bytes > fileSize) {
+            throw new IOException("Truncated run file: " + path);
+        }
+        remap(position, bytes);
+    }
+
+    private void remap(long position, int atLeast) throws IOException {
+        long length = Math.min(Math.max(WINDOW_BYTES, atLeast), fileSize - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        windowStart = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        exhausted = true;
+        head = null;
+        channel.close();
+    }
+}
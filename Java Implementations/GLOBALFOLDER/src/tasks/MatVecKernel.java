@@ -0,0 +1,203 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Многопоточное ядро {@link FirstExercise}: {@code y = G·x}, скалярное произведение
+ * и квадратичная форма — для полной матрицы и для {@link SymmetricMatrix}.
+ * <br>Работа режется на блоки строк, блоки раздаются потокам {@link ForkJoinPool}.
+ * В полной матрице столбцы блока идут плитками: кусок {@code x} остаётся в кэше, пока по нему
+ * проходят все строки блока.</br>
+ * <br>Результат воспроизводим: границы блоков зависят только от размерности, каждая
+ * сумма внутри блока считается в одном и том же порядке, а частичные суммы блоков
+ * складываются по возрастанию номера. Число потоков и расписание на ответ не влияют.
+ * {@code y = G·x} к тому же совпадает с последовательным циклом бит в бит.</br>
+ */
+public final class MatVecKernel {
+    private static final int ROW_BLOCK = 64;                // Строк в блоке полной матрицы
+    private static final int COLUMN_TILE = 2048;            // Столбцов в плитке: 16 КБ из x
+    private static final int PACKED_BLOCK = 1 << 16;        // Элементов треугольника в блоке
+    private static final int DOT_BLOCK = 1 << 14;           // Элементов в блоке скалярного произведения
+    private static final long PARALLEL_THRESHOLD = 1 << 15; // Меньше — считаем в вызывающем потоке
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Ядро на общем пуле.
+     */
+    public MatVecKernel() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool пул, в котором считаются блоки
+     */
+    public MatVecKernel(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * {@code y = G·x}.
+     * @param G матрица N×M, строки одной длины
+     * @param x вектор длины M
+     * @return вектор длины N
+     */
+    public double[] multiply(double[][] G, double[] x) {
+        double[] y = new double[G.length];
+        multiply(G, x, y);
+        return y;
+    }
+
+    /**
+     * {@code y = G·x} в готовый массив.
+     */
+    public void multiply(double[][] G, double[] x, double[] y) {
+        if (y.length != G.length) throw new IllegalArgumentException("Result length must be " + G.length);
+        for (double[] row : G) {
+            if (row.length != x.length) throw new IllegalArgumentException("Row length must be " + x.length);
+        }
+
+        int blocks = blockCount(G.length, ROW_BLOCK);
+        run(blocks, (long) G.length * x.length, block -> {
+            int from = block * ROW_BLOCK;
+            multiplyBlock(G, x, y, from, Math.min(from + ROW_BLOCK, G.length));
+        });
+    }
+
+    /**
+     * Скалярное произведение с фиксированным порядком сложения.
+     */
+    public double dot(double[] a, double[] b) {
+        if (a.length != b.length) throw new IllegalArgumentException("Vector lengths differ.");
+
+        int blocks = blockCount(a.length, DOT_BLOCK);
+        double[] partial = new double[blocks];
+        run(blocks, a.length, block -> {
+            int from = block * DOT_BLOCK;
+            int to = Math.min(from + DOT_BLOCK, a.length);
+            double sum = 0.0;
+            for (int i = from; i < to; ++i) { sum += a[i] * b[i]; }
+            partial[block] = sum;
+        });
+        return sumInOrder(partial);
+    }
+
+    /**
+     * Квадратичная форма {@code xᵀ·(G·x)} по полной матрице.
+     */
+    public double quadraticForm(double[][] G, double[] x) {
+        if (G.length != x.length) throw new IllegalArgumentException("Matrix must be square.");
+        return dot(x, multiply(G, x));
+    }
+
+    /**
+     * Квадратичная форма по упакованному треугольнику: диагональ плюс удвоенная внедиагональная часть.
+     * <br>Строки треугольника разной длины, поэтому блоки нарезаются по числу элементов,
+     * а не строк: все потоки получают примерно поровну работы. Блок считает
+     * {@link SymmetricMatrix#quadraticFormRows}; он невелик, так что общий для его строк
+     * хвост {@code x} не вытесняется из кэша и без плиток.</br>
+     */
+    public double quadraticForm(SymmetricMatrix G, double[] x) {
+        int n = G.size();
+        if (x.length != n) throw new IllegalArgumentException("Vector length must be " + n);
+
+        int[] bounds = packedBlocks(n);
+        double[] partial = new double[bounds.length - 1];
+        run(partial.length, (long) n * (n + 1) / 2, block ->
+                partial[block] = G.quadraticFormRows(x, bounds[block], bounds[block + 1]));
+        return sumInOrder(partial);
+    }
+
+    /**
+     * Блок строк {@code [from, to)} полной матрицы, плитками по столбцам.
+     * <br>Сумма строки переносится из плитки в плитку, поэтому порядок сложения тот же,
+     * что у простого цикла по {@code j}.</br>
+     */
+    private static void multiplyBlock(double[][] G, double[] x, double[] y, int from, int to) {
+        int m = x.length;
+        for (int i = from; i < to; ++i) { y[i] = 0.0; }
+
+        for (int tile = 0; tile < m; tile += COLUMN_TILE) {
+            int tileEnd = Math.min(tile + COLUMN_TILE, m);
+            for (int i = from; i < to; ++i) {
+                double[] row = G[i];
+                double sum = y[i];
+                for (int j = tile; j < tileEnd; ++j) {
+                    sum += row[j] * x[j];
+                }
+                y[i] = sum;
+            }
+        }
+    }
+
+    /**
+     * Границы блоков треугольника: в каждом блоке около {@link #PACKED_BLOCK} элементов.
+     */
+    private static int[] packedBlocks(int n) {
+        int[] bounds = new int[n + 1];
+        int count = 0;
+        long filled = 0;
+        bounds[count++] = 0;
+        for (int i = 0; i < n; ++i) {
+            filled += n - i;
+            if (filled >= PACKED_BLOCK && i + 1 < n) {
+                bounds[count++] = i + 1;
+                filled = 0;
+            }
+        }
+        bounds[count++] = n;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static int blockCount(int length, int block) {
+        return Math.max(1, (length + block - 1) / block);
+    }
+
+    private static double sumInOrder(double[] partial) {
+        double sum = 0.0;
+        for (double value : partial) { sum += value; }
+        return sum;
+    }
+
+    /**
+     * Выполнение блоков {@code [0, blocks)}: маленькая работа — в текущем потоке, иначе в пуле.
+     * @param work число умножений, чтобы решить, стоит ли звать пул
+     */
+    private void run(int blocks, long work, IntConsumer body) {
+        if (blocks == 1 || work < PARALLEL_THRESHOLD) {
+            for (int block = 0; block < blocks; ++block) { body.accept(block); }
+        } else {
+            pool.invoke(new Blocks(0, blocks, body));
+        }
+    }
+
+    /**
+     * Деление диапазона блоков пополам, пока не останется один блок.
+     */
+    @SuppressWarnings("serial") // Задача пула, не сериализуется
+    private static final class Blocks extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        Blocks(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Blocks(from, middle, body), new Blocks(middle, to, body));
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Обобщённый класс, который строит минимальную кучу.
+ * @param <T> тип, который реализовывает {@code Comparable<T>}.
+ *           Это нужно, чтобы понимать по какому принципу строить кучу
+ */
+class MinHeap<T extends Comparable<T>> {
+    private T[] heap;
+
+    /**
+     * Дескрипторы элементов, параллельно {@code heap}: {@code handles[i].index == i}.
+     * <br>Создаются лениво: массив — при первом {@link #addWithHandle(Comparable)}, дескриптор —
+     * только для элементов, добавленных через него. Остальные ячейки {@code null}, так что
+     * куча без {@code decreaseKey} по дескриптору не платит за них ни памятью, ни обменами.</br>
+     */
+    private Handle<T>[] handles;
+
+    /**
+     * «Указатель» на текущий свободный индекс
+     */
+    private int size;
+
+    private static int DEFAULT_CAPACITY = 20;
+    private static final int DEFAULT_ARITY = 2;
+
+    /**
+     * Число детей у каждого узла: 2 — обычная двоичная куча.
+     */
+    private final int arity;
+
+    /**
+     * Устойчивая ссылка на элемент кучи: позиция внутри обновляется при каждом обмене,
+     * поэтому через неё можно уменьшить ключ или удалить элемент, где бы он ни оказался.
+     * @param <T> тип элемента
+     */
+    public static final class Handle<T extends Comparable<T>> {
+        private T value;
+        private int index; // -1 — элемент уже извлечён или удалён
+
+        private Handle(T value, int index) {
+            this.value = value;
+            this.index = index;
+        }
+
+        public T value() { return value; }
+
+        /**
+         * @return {@code true}, пока элемент лежит в куче
+         */
+        public boolean isValid() { return index >= 0; }
+    }
+
+    /**
+     * Конструктор, получающий на вход массив объектов,
+     * реализующих {@code Comparable}
+     * @param constr
+     * @param args
+     */
+    @SafeVarargs
+    public MinHeap(IntFunction<T[]> constr,
+                   T... args) {
+        this.arity = DEFAULT_ARITY;
+        heap = constr.apply(Math.max(
+                DEFAULT_CAPACITY,
+                args.length
+        ));
+        // Поэлементно: varargs-массив только читается и никуда не передаётся
+        for (var arg : args) {
+            heap[size++] = arg;
+        }
+        heapifyAll(false);
+    }
+
+    private MinHeap(int arity, IntFunction<T[]> constr, T[] args, boolean parallel) {
+        if (arity < 2) throw new IllegalArgumentException("Arity of heap must be at least 2.");
+        this.arity = arity;
+
+        heap = constr.apply(Math.max(
+                DEFAULT_CAPACITY,
+                args.length
+        ));
+        System.arraycopy(args, 0, heap, 0, args.length);
+        size = args.length;
+        heapifyAll(parallel);
+    }
+
+    /**
+     * Все элементы уже лежат в массиве: строим кучу по Флойду за O(n).
+     */
+    private void heapifyAll(boolean parallel) {
+        if (parallel) {
+            ParallelHeapify.heapify(size, arity, this::heapifyDownFrom);
+            return;
+        }
+        for (int i = getParentIndex(size - 1); i >= 0; --i) {
+            heapifyDownFrom(i);
+        }
+    }
+
+    /**
+     * Построение d-арной кучи: у каждого узла до {@code arity} детей, лежащих в массиве подряд.
+     * @param arity число детей у узла (не меньше 2)
+     * @param constr конструктор массива
+     * @param args начальные элементы, массив не меняется
+     */
+    public static <T extends Comparable<T>> MinHeap<T> withArity(int arity,
+                                                                 IntFunction<T[]> constr,
+                                                                 T[] args) {
+        return new MinHeap<>(arity, constr, args, false);
+    }
+
+    /**
+     * Построение большой кучи с параллельной сборкой независимых поддеревьев на общем {@code ForkJoinPool}.
+     * <br>Небольшие входы строятся последовательно; результат совпадает с обычным конструктором.</br>
+     * @param arity число детей у узла (не меньше 2)
+     * @param constr конструктор массива
+     * @param args начальные элементы, массив не меняется
+     */
+    public static <T extends Comparable<T>> MinHeap<T> parallelOf(int arity,
+                                                                  IntFunction<T[]> constr,
+                                                                  T[] args) {
+        return new MinHeap<>(arity, constr, args, true);
+    }
+
+    /**
+     * Добавление элемента без дескриптора.
+     * @param argument элемент
+     */
+    public void add(T argument) {
+        ensureCapacity();
+
+        heap[size++] = argument;
+        heapifyUp();
+    }
+
+    /**
+     * Добавление элемента с дескриптором — для тех, кому нужен {@code decreaseKey} или удаление по ссылке.
+     * @param argument элемент
+     * @return дескриптор для {@link #decreaseKey(Handle, Comparable)} и {@link #remove(Handle)}
+     */
+    public Handle<T> addWithHandle(T argument) {
+        ensureCapacity();
+        if (handles == null) { handles = newHandles(heap.length); }
+
+        Handle<T> handle = new Handle<>(argument, size);
+        handles[size] = handle;
+        heap[size++] = argument;
+        heapifyUp();
+        return handle;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public T peek() {
+        return heap[0];
+    }
+
+    public T poll() {
+        if (size == 0) { throw new IllegalStateException("Heap is empty!"); }
+
+        T minimum = heap[0];
+        heap[0] = heap[size - 1];
+        heap[size - 1] = null;
+        if (handles != null) {
+            invalidate(0);
+            moveHandle(size - 1, 0);
+        }
+        size--;
+
+        heapifyDown();
+        return minimum;
+    }
+
+    /**
+     * Замена верхушки новым элементом с одним спуском вместо {@code poll()} + {@code add()}.
+     * <br>Если передана сама верхушка с изменившимся ключом, её дескриптор остаётся
+     * действительным; иначе дескриптор старой верхушки становится недействительным,
+     * а новый элемент дескриптора не получает.</br>
+     * @param argument новый элемент
+     * @return прежний минимум
+     * @throws IllegalStateException если куча пуста
+     */
+    public T replaceTop(T argument) {
+        if (size == 0) { throw new IllegalStateException("Heap is empty!"); }
+
+        T minimum = heap[0];
+        if (argument != minimum) { // Элемент сменился — старый дескриптор больше не в куче
+            if (handles != null) { invalidate(0); }
+            heap[0] = argument;
+        }
+        heapifyDown();
+        return minimum;
+    }
+
+    private void heapifyUp() {
+        heapifyUpFrom(size - 1);
+    }
+
+    private void heapifyDown() {
+        heapifyDownFrom(0);
+    }
+
+    private int heapifyDownFrom(int index) {
+        int depth = 0;
+        while (hasChild(index)) {
+            int lowerChildIndex = getFirstChildIndex(index);
+            int lastChildIndex = Math.min(lowerChildIndex + arity, size);
+
+            for (int child = lowerChildIndex + 1; child < lastChildIndex; ++child) {
+                if (compare(heap[child], heap[lowerChildIndex]) < 0) {
+                    lowerChildIndex = child;
+                }
+            }
+
+            if (compare(heap[index], heap[lowerChildIndex]) <= 0) {
+                break;
+            } else {
+                localSwap(index, lowerChildIndex);
+                index = lowerChildIndex;
+                depth++;
+            }
+        }
+        if (HeapMetrics.ENABLED) { HeapMetrics.sift("MinHeap", HeapMetrics.Sift.DOWN, depth, size); }
+        return index;
+    }
+
+    private void ensureCapacity() {
+        if (size == heap.length) {
+            if (HeapMetrics.ENABLED) { HeapMetrics.resize("MinHeap", heap.length, heap.length * 2); }
+            heap = Arrays.copyOf(heap, heap.length * 2);
+            if (handles != null) { handles = Arrays.copyOf(handles, heap.length); }
+        }
+    }
+
+    private void localSwap(int i1, int i2) {
+        if (HeapMetrics.ENABLED) { HeapMetrics.swap(); }
+        var temp = heap[i1];
+        heap[i1] = heap[i2];
+        heap[i2] = temp;
+
+        if (handles != null) {
+            var handle = handles[i1];
+            handles[i1] = handles[i2];
+            handles[i2] = handle;
+            if (handles[i1] != null) { handles[i1].index = i1; }
+            if (handle != null) { handle.index = i2; }
+        }
+    }
+
+    /**
+     * Дескриптор ячейки {@code from} переезжает в {@code to}; {@code from} пустеет.
+     */
+    private void moveHandle(int from, int to) {
+        Handle<T> moved = handles[from];
+        handles[from] = null;
+        handles[to] = moved;
+        if (moved != null) { moved.index = to; }
+    }
+
+    /**
+     * Дескриптор элемента в ячейке {@code index}, если он есть, больше не в куче.
+     */
+    private void invalidate(int index) {
+        Handle<T> handle = handles[index];
+        if (handle != null) {
+            handle.index = -1;
+            handles[index] = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> Handle<T>[] newHandles(int length) {
+        return (Handle<T>[]) new Handle<?>[length];
+    }
+
+    private int getFirstChildIndex(int parent) { return arity * parent + 1; }
+    private int getParentIndex(int child) { return (child - 1) / arity; }
+
+    private boolean hasChild(int index) { return (long) arity * index + 1 < size; }
+    private boolean hasParent(int index) { return index > 0; }
+
+    public void decreaseKey(int index, T newValue) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+
+        if (compare(heap[index], newValue) < 0)
+            throw new IllegalArgumentException("New key is greater than current key!");
+
+        heap[index] = newValue;
+        if (handles != null && handles[index] != null) { handles[index].value = newValue; }
+        heapifyUpFrom(index);
+    }
+
+    /**
+     * Уменьшение ключа элемента по его дескриптору, за O(log n).
+     * @param handle дескриптор из {@link #addWithHandle(Comparable)}
+     * @param newValue новое значение, не больше текущего
+     * @throws IllegalArgumentException если дескриптор не из этой кучи, устарел или ключ больше текущего
+     */
+    public void decreaseKey(Handle<T> handle, T newValue) {
+        decreaseKey(checkHandle(handle), newValue);
+    }
+
+    /**
+     * Удаление элемента по дескриптору, за O(log n).
+     * @param handle дескриптор из {@link #addWithHandle(Comparable)}
+     * @return {@code false}, если элемент уже был извлечён или удалён
+     * @throws IllegalArgumentException если дескриптор не из этой кучи
+     */
+    public boolean remove(Handle<T> handle) {
+        if (!handle.isValid()) { return false; }
+
+        int index = checkHandle(handle);
+        int last = size - 1;
+        invalidate(index);
+        heap[index] = heap[last]; // Последний элемент встаёт на место удалённого
+        heap[last] = null;
+        moveHandle(last, index);
+        size--;
+
+        if (index != last && heapifyDownFrom(index) == index) {
+            heapifyUpFrom(index); // Не сдвинулся вниз — возможно, должен подняться
+        }
+        return true;
+    }
+
+    private int checkHandle(Handle<T> handle) {
+        int index = handle.index;
+        if (index < 0 || index >= size || handles == null || handles[index] != handle) {
+            throw new IllegalArgumentException("Handle does not belong to this heap.");
+        }
+        return index;
+    }
+
+    private void heapifyUpFrom(int index) {
+        int depth = 0;
+        while (hasParent(index)) {
+            int parentIndex = getParentIndex(index);
+            if (compare(heap[parentIndex], heap[index]) <= 0) break;
+            localSwap(parentIndex, index);
+            index = parentIndex;
+            depth++;
+        }
+        if (HeapMetrics.ENABLED) { HeapMetrics.sift("MinHeap", HeapMetrics.Sift.UP, depth, size); }
+    }
+
+    private int compare(T first, T second) {
+        if (HeapMetrics.ENABLED) { HeapMetrics.comparison(); }
+        return first.compareTo(second);
+    }
+
+    /**
+     * Слияние в новую кучу. Дескрипторы исходных куч к ней не относятся.
+     */
+    public MinHeap<T> merge(MinHeap<T> other, IntFunction<T[]> constr) {
+        T[] merged = constr.apply(this.size + other.size);
+        System.arraycopy(this.heap, 0, merged, 0, this.size);
+        System.arraycopy(other.heap, 0, merged, this.size, other.size);
+
+        return new MinHeap<>(this.arity, constr, merged, false);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(heap, size));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,310 @@
+package tasks;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Блокирующая очередь с приоритетом поверх {@link MyPriorityQueue}.
+ * <br>Потребители ждут элементы в {@code take()} вместо опроса {@code poll()} в цикле,
+ * а при заданной ёмкости производители ждут свободного места в {@code put()}.</br>
+ * <br>Ожидание построено на {@link ReentrantLock} и {@link Condition}, а не на
+ * {@code synchronized}/{@code wait}: виртуальный поток при этом отсоединяется
+ * от несущего и не закрепляет его, так что тысячи потребителей почти ничего не стоят.</br>
+ * <br>Элементы {@code null} не допускаются.</br>
+ * @param <T> тип элементов
+ */
+public class MyPriorityBlockingQueue<T> extends AbstractQueue<T>
+        implements BlockingQueue<T> {
+    private final MyPriorityQueue<T> heap;  // Сама куча, доступ только под замком
+    private final int capacity;             // Предел размера, Integer.MAX_VALUE — без ограничения
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Неограниченная очередь с естественным порядком.
+     */
+    public MyPriorityBlockingQueue() {
+        this(Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Неограниченная очередь.
+     * @param comparator компаратор, {@code null} — естественный порядок
+     */
+    public MyPriorityBlockingQueue(Comparator<? super T> comparator) {
+        this(Integer.MAX_VALUE, comparator);
+    }
+
+    /**
+     * Ограниченная очередь: при заполнении {@code put} ждёт, а {@code offer} возвращает {@code false}.
+     * @param capacity максимальное число элементов
+     * @param comparator компаратор, {@code null} — естественный порядок
+     */
+    public MyPriorityBlockingQueue(int capacity, Comparator<? super T> comparator) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive.");
+
+        this.capacity = capacity;
+        this.heap = new MyPriorityQueue<>(Math.min(capacity, 16), comparator);
+    }
+
+    @Override
+    public boolean offer(T element) {
+        Objects.requireNonNull(element);
+        lock.lock();
+        try {
+            if (heap.size() >= capacity) { return false; }
+            enqueue(element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(T element) throws InterruptedException {
+        Objects.requireNonNull(element);
+        lock.lockInterruptibly();
+        try {
+            while (heap.size() >= capacity) {
+                notFull.await();
+            }
+            enqueue(element);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(T element, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(element);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (heap.size() >= capacity) {
+                if (nanos <= 0L) { return false; }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll() {
+        lock.lock();
+        try {
+            return heap.isEmpty() ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (heap.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (heap.isEmpty()) {
+                if (nanos <= 0L) { return null; }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T peek() {
+        lock.lock();
+        try {
+            return heap.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        if (capacity == Integer.MAX_VALUE) { return Integer.MAX_VALUE; }
+
+        lock.lock();
+        try {
+            return capacity - heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Перенос до {@code maxElements} наименьших элементов в коллекцию в порядке приоритета
+     * за один захват замка.
+     * @param c приёмник
+     * @param maxElements максимум переносимых элементов
+     * @return число перенесённых элементов
+     */
+    @Override
+    public int drainTo(Collection<? super T> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) throw new IllegalArgumentException("Cannot drain queue to itself.");
+        if (maxElements <= 0) { return 0; }
+
+        lock.lock();
+        int drained = 0;
+        try {
+            // Сначала добавляем в приёмник, потом извлекаем: если c.add бросит, элемент останется в очереди
+            while (drained < maxElements && !heap.isEmpty()) {
+                c.add(heap.peek());
+                heap.poll();
+                drained++;
+            }
+            return drained;
+        } finally {
+            if (drained > 0) { notFull.signalAll(); }
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            boolean removed = heap.remove(o);
+            if (removed) { notFull.signal(); }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        lock.lock();
+        try {
+            return heap.contains(o);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            heap.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        lock.lock();
+        try {
+            return heap.toArray();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <E> E[] toArray(E[] a) {
+        lock.lock();
+        try {
+            return heap.toArray(a);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаление по условию под замком: куча фильтруется и перестраивается за один проход.
+     * @param filter условие удаления
+     * @return {@code true}, если что-то удалено
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+        lock.lock();
+        try {
+            boolean removed = heap.removeIf(filter);
+            if (removed) { notFull.signalAll(); }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(element -> !c.contains(element));
+    }
+
+    /**
+     * Итератор по снимку содержимого (в порядке кучи). Удаление через итератор не поддерживается —
+     * для массового удаления есть {@link #removeIf}, {@link #removeAll} и {@link #retainAll}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<T> iterator() {
+        return (Iterator<T>) Arrays.asList(toArray()).iterator();
+    }
+
+    /*
+        Вставка и извлечение — только под замком
+    */
+    private void enqueue(T element) {
+        heap.add(element);
+        notEmpty.signal();
+    }
+
+    private T dequeue() {
+        T element = heap.poll();
+        notFull.signal();
+        return element;
+    }
+}
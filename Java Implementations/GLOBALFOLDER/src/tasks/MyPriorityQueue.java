@@ -1,17 +1,25 @@
 package tasks;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Класс, который реализует <b>очередь с приоритетом</b> на основе кучи.
  */
 public class MyPriorityQueue<T>
         implements Queue<T>, Iterable<T> {
-    private T[] heap;                         // Массив чисел (сама куча как таковая)
+    private SegmentedStore<T> heap;           // Сегменты кучи (сама куча как таковая), общие с BigPriorityQueue
     private int size;                         // Текущая размерность, "курсор" заполнения.
     private Comparator<? super T> comparator; // Компаратор для сравнения
+    private final int arity;                  // Арность кучи: число детей у каждого узла
+    private final Map<T, Integer> positions;  // Индекс «элемент → позиция», {@code null} вне индексного режима
+    private final int maxSize;                // Предел размера в режиме top-K, 0 — без ограничения
 
     private static final int DEFAULT_CAPACITY = 12; // Размерность по умолчанию
+    private static final int DEFAULT_ARITY = 2;     // Арность по умолчанию (двоичная куча)
 
     /**
      * Fail-fast iterator-variable.
@@ -44,11 +52,123 @@ public class MyPriorityQueue<T>
      */
     public MyPriorityQueue(int initCapacity,
                            Comparator<? super T> comparator) {
+        this(initCapacity, comparator, DEFAULT_ARITY);
+    }
+
+    /**
+     * Конструктор d-арной кучи.
+     * <br>При арности 4 или 8 все дети узла лежат рядом в одной кэш-линии,
+     * поэтому уровней меньше, а каждый спуск при {@code poll()} дешевле.</br>
+     * @param initCapacity входная ёмкость
+     * @param comparator компаратор для сравнения элементов
+     * @param arity число детей у каждого узла (не меньше 2)
+     */
+    public MyPriorityQueue(int initCapacity,
+                           Comparator<? super T> comparator,
+                           int arity) {
+        this(initCapacity, comparator, arity, false, 0);
+    }
+
+    private MyPriorityQueue(int initCapacity,
+                            Comparator<? super T> comparator,
+                            int arity,
+                            boolean indexed,
+                            int maxSize) {
         if (initCapacity < 1) throw new IllegalArgumentException("Negative dimension of heap.");
 
-        this.heap = (T[]) new Object[initCapacity];
+        this.heap = new SegmentedStore<>(initCapacity);
         this.size = 0;
         this.comparator = comparator;
+        this.arity = checkArity(arity);
+        this.positions = indexed ? new HashMap<>(initCapacity) : null;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Индексная очередь: хранит отображение «элемент → позиция в массиве»,
+     * поэтому {@code contains} работает за O(1), а {@code remove(Object)} — за O(log n).
+     * <br>Одинаковые (по {@code equals}) элементы в ней не допускаются:
+     * повторный {@code add} вернёт {@code false}. Элементы нельзя менять так,
+     * чтобы менялся их {@code hashCode}, пока они лежат в очереди.</br>
+     * @param comparator компаратор для сравнения элементов
+     * @return пустая индексная очередь
+     */
+    public static <T> MyPriorityQueue<T> indexed(Comparator<? super T> comparator) {
+        return indexed(DEFAULT_CAPACITY, comparator, DEFAULT_ARITY);
+    }
+
+    /**
+     * Индексная d-арная очередь.
+     * @param initCapacity входная ёмкость
+     * @param comparator компаратор для сравнения элементов
+     * @param arity число детей у каждого узла (не меньше 2)
+     * @return пустая индексная очередь
+     * @see MyPriorityQueue#indexed(Comparator)
+     */
+    public static <T> MyPriorityQueue<T> indexed(int initCapacity,
+                                                 Comparator<? super T> comparator,
+                                                 int arity) {
+        return new MyPriorityQueue<>(initCapacity, comparator, arity, true, 0);
+    }
+
+    /**
+     * Очередь в режиме <b>top-K</b>: хранит не больше {@code k} наибольших
+     * (по компаратору) элементов из всех, что в неё добавляли.
+     * <br>Верхушка — наименьший из сохранённых, то есть порог входа: новый элемент
+     * либо отбрасывается сразу, либо встаёт на место верхушки через
+     * {@link MyPriorityQueue#replaceTop(Object)}. Память — O(k), вставка — O(log k).</br>
+     * <br>Отсеянный элемент — отказ по ёмкости: {@code offer} вернёт {@code false},
+     * а {@code add}, по контракту {@link Queue#add}, бросит {@link IllegalStateException}.</br>
+     * <br>Чтобы сохранять k наименьших, достаточно передать обратный компаратор.</br>
+     * @param k сколько элементов хранить
+     * @param comparator компаратор для сравнения элементов
+     * @return пустая ограниченная очередь
+     */
+    public static <T> MyPriorityQueue<T> bounded(int k, Comparator<? super T> comparator) {
+        if (k < 1) throw new IllegalArgumentException("Bound of top-K queue must be positive.");
+        return new MyPriorityQueue<>(k, comparator, DEFAULT_ARITY, false, k);
+    }
+
+    /**
+     * Потоковый выбор {@code k} наибольших элементов за O(n log k) времени и O(k) памяти.
+     * @param source источник, может быть сколь угодно длинным
+     * @param k сколько элементов выбрать
+     * @param comparator компаратор, {@code null} — естественный порядок
+     * @return до {@code k} элементов, от наибольшего к наименьшему
+     * @see MyPriorityQueue#bounded(int, Comparator)
+     */
+    public static <T> List<T> topK(Iterable<? extends T> source, int k, Comparator<? super T> comparator) {
+        MyPriorityQueue<T> queue = bounded(k, comparator);
+        for (T element : source) {
+            queue.offer(element);
+        }
+        return queue.drainDescending();
+    }
+
+    /**
+     * Потоковый выбор {@code k} наибольших элементов из {@link Stream}.
+     * <br>Элементы передаются в очередь по одному, поэтому параллельный поток тоже безопасен.</br>
+     * @param source поток элементов
+     * @param k сколько элементов выбрать
+     * @param comparator компаратор, {@code null} — естественный порядок
+     * @return до {@code k} элементов, от наибольшего к наименьшему
+     */
+    public static <T> List<T> topK(Stream<? extends T> source, int k, Comparator<? super T> comparator) {
+        MyPriorityQueue<T> queue = bounded(k, comparator);
+        source.forEachOrdered(queue::offer);
+        return queue.drainDescending();
+    }
+
+    /**
+     * Опустошение очереди в список от наибольшего к наименьшему.
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> drainDescending() {
+        T[] result = (T[]) new Object[size];
+        for (int i = size - 1; i >= 0; --i) {
+            result[i] = poll();
+        }
+        return Arrays.asList(result);
     }
 
     /**
@@ -57,15 +177,25 @@ public class MyPriorityQueue<T>
      * @param comp компаратор сравнения
      */
     public MyPriorityQueue(T[] another, Comparator<? super T> comp) {
+        this(another, comp, DEFAULT_ARITY);
+    }
+
+    /**
+     * Конструктор d-арной кучи из массива значений.
+     * @param another массив каких-то значений, которые мы хотим затолкать в кучу
+     * @param comp компаратор сравнения
+     * @param arity число детей у каждого узла (не меньше 2)
+     */
+    public MyPriorityQueue(T[] another, Comparator<? super T> comp, int arity) {
         this.comparator = comp;
+        this.arity = checkArity(arity);
+        this.positions = null;
+        this.maxSize = 0;
         if (another == null) {
-            this.heap = (T[]) new Object[DEFAULT_CAPACITY];
+            this.heap = new SegmentedStore<>(DEFAULT_CAPACITY);
             this.size = 0;
         } else {
-            this.heap = Arrays.copyOf(
-                    another,
-                    Math.max(DEFAULT_CAPACITY, another.length)
-            );
+            this.heap = SegmentedStore.of(another, another.length, DEFAULT_CAPACITY);
             this.size = another.length;
             heapifyAll();
         }
@@ -84,18 +214,99 @@ public class MyPriorityQueue<T>
      * @param other другая минимальная куча
      */
     public MyPriorityQueue(MyPriorityQueue<T> other) {
-        this.heap = Arrays.copyOf(other.heap, other.heap.length);
+        this.heap = other.heap.copy();
         this.size = other.size;
         this.comparator = other.comparator;
+        this.arity = other.arity;
+        this.positions = (other.positions == null) ? null : new HashMap<>(other.positions);
+        this.maxSize = other.maxSize;
         this.modificationCount = other.modificationCount;
     }
 
+    /**
+     * Очередь поверх хранилища, которое уже упорядочено как куча, — без {@code heapifyAll()} и без копирования.
+     * <br>Только для доверенных источников вроде {@link PriorityQueueCheckpoint}:
+     * свойство кучи не проверяется. В индексном режиме индекс позиций строится заново.</br>
+     * @param heap хранилище в раскладке кучи; переходит очереди
+     * @param size число элементов
+     * @param comparator компаратор, которым куча была построена
+     * @param arity арность, с которой куча была построена
+     * @param indexed восстанавливать ли индексную очередь
+     * @param maxSize предел top-K, 0 — без ограничения
+     * @return очередь поверх хранилища
+     * @throws IllegalArgumentException если в индексной очереди есть одинаковые элементы
+     * или элементов больше предела
+     */
+    static <T> MyPriorityQueue<T> fromHeapLayout(SegmentedStore<T> heap,
+                                                 int size,
+                                                 Comparator<? super T> comparator,
+                                                 int arity,
+                                                 boolean indexed,
+                                                 int maxSize) {
+        if (maxSize > 0 && size > maxSize) {
+            throw new IllegalArgumentException("Heap of " + size + " elements exceeds bound " + maxSize + ".");
+        }
+        MyPriorityQueue<T> queue = new MyPriorityQueue<>(1, comparator, arity, indexed, maxSize);
+        queue.heap = heap;
+        queue.size = size;
+        if (indexed) {
+            for (int i = 0; i < size; ++i) {
+                if (queue.positions.put(heap.get(i), i) != null) {
+                    throw new IllegalArgumentException("Indexed heap contains duplicate element at " + i + ".");
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Построение очереди из большого массива с параллельной сборкой кучи на {@link java.util.concurrent.ForkJoinPool}.
+     * <br>Независимые поддеревья строятся в разных потоках; до порога
+     * ({@value ParallelHeapify#DEFAULT_THRESHOLD} элементов) всё идёт последовательно.
+     * Раскладка кучи получается точно такой же, как у {@link #MyPriorityQueue(Object[], Comparator, int)}.</br>
+     * <br>Компаратор вызывается из нескольких потоков одновременно.</br>
+     * @param another исходные элементы, массив не меняется
+     * @param comparator компаратор, {@code null} — естественный порядок
+     * @param arity число детей у каждого узла (не меньше 2)
+     * @return очередь из всех элементов
+     */
+    public static <T> MyPriorityQueue<T> buildParallel(T[] another, Comparator<? super T> comparator, int arity) {
+        MyPriorityQueue<T> queue = new MyPriorityQueue<>(1, comparator, arity, false, 0);
+        queue.heap = SegmentedStore.of(another, another.length, DEFAULT_CAPACITY);
+        queue.size = another.length;
+        // Свежая очередь не разделена со снимками: потоки пишут в разные ячейки без копирования сегментов.
+        ParallelHeapify.heapify(queue.size, queue.arity, queue::heapifyDownFrom);
+        return queue;
+    }
+
+    private static int checkArity(int arity) {
+        if (arity < 2) throw new IllegalArgumentException("Arity of heap must be at least 2.");
+        return arity;
+    }
+
+    /**
+     * @return число детей у каждого узла кучи
+     */
+    public int arity() { return this.arity; }
+
+    /**
+     * @return {@code true}, если очередь ведёт индекс позиций элементов
+     * @see MyPriorityQueue#indexed(Comparator)
+     */
+    public boolean isIndexed() { return positions != null; }
+
+    /**
+     * @return предел размера в режиме top-K, 0 — очередь не ограничена
+     * @see MyPriorityQueue#bounded(int, Comparator)
+     */
+    int maxSize() { return maxSize; }
+
     /**
      * Просмотр верхушки без удаления.
      * @return целочисленный элемент и {@code null}, если куча пуста.
      */
     @Override public T peek() {
-        return isEmpty() ? null : heap[0];
+        return isEmpty() ? null : get(0);
     }
 
     /**
@@ -107,71 +318,123 @@ public class MyPriorityQueue<T>
         if (isEmpty()) {
             throw new NoSuchElementException("Heap is empty");
         }
-        return heap[0];
+        return get(0);
     }
 
     /**
      * Переопределённый из интерфейса {@link Queue} метод через кучу
      * @param willBeHeapElement элемент типа {@code Integer}
-     * @return {@code true}, если элемент был добавлен, {@code false} в ином случае
+     * @return {@code true}, если элемент был добавлен, {@code false} — в индексном режиме,
+     * если такой элемент уже есть (как у множества по контракту {@link Collection#add})
+     * @throws IllegalStateException в режиме top-K, если очередь заполнена и элемент
+     * не больше наименьшего из сохранённых; чтобы просто отбросить его, используйте {@link #offer(Object)}
      * @see MyPriorityQueue#extraEnsureCapacity()
      * @see MyPriorityQueue#heapifyUp()
      */
     @Override public boolean add(T willBeHeapElement) {
-        extraEnsureCapacity(); // Обязательная проверка на увеличение вместимости
-        heap[size++] = willBeHeapElement;
-        heapifyUp();           // Поднимаем элемент наверх для соблюдения свойства кучи.
-        modificationCount++;
-        return true;
+        if (offer(willBeHeapElement)) { return true; }
+        if (maxSize > 0) throw new IllegalStateException("Queue is full: element is below the top-K threshold.");
+        return false;
     }
 
     /**
      * Метод добавления элементов в непосредственно кучу.
      * @param another массив элементов
+     * @see MyPriorityQueue#addAll(Collection)
      */
     public void addAll(T[] another) {
-        for (T el : another) {
-            add(el);
+        addAll(Arrays.asList(another));
+    }
+
+    /**
+     * Вставка без исключений при отказе.
+     * @param willBeHeapElement элемент
+     * @return {@code true}, если элемент был добавлен, {@code false} в ином случае
+     * (в индексном режиме — если такой элемент уже есть,
+     * в режиме top-K — если он не больше наименьшего из сохранённых)
+     */
+    @Override public boolean offer(T willBeHeapElement) {
+        if (positions != null && positions.containsKey(willBeHeapElement)) { return false; }
+        if (maxSize > 0 && size >= maxSize) {
+            // Очередь заполнена: элемент входит, только вытесняя текущий порог.
+            if (compare(willBeHeapElement, get(0)) <= 0) { return false; }
+            replaceTop(willBeHeapElement);
+            return true;
         }
+
+        extraEnsureCapacity(); // Обязательная проверка на увеличение вместимости
+        place(size++, willBeHeapElement);
+        heapifyUp();           // Поднимаем элемент наверх для соблюдения свойства кучи.
+        modificationCount++;
+        return true;
     }
 
     /**
-     * Метод аналогичный {@code add()} в случае бесконечных структур.
-     * Но будет иметь разницу в ограниченной очереди! В данной реализации — аналог.
-     * @param willBeHeapElement элемент целочисленный
-     * @return логическое значение успешности вставки
+     * Замена верхушки новым элементом за один спуск — вместо {@code poll()} и следующего {@code add()}.
+     * @param element новый элемент
+     * @return прежняя верхушка
+     * @throws NoSuchElementException если куча пуста
      */
-    @Override public boolean offer(T willBeHeapElement) { return add(willBeHeapElement); }
+    public T replaceTop(T element) {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+
+        T top = get(0);
+        if (positions != null) {
+            if (!Objects.equals(top, element) && positions.containsKey(element)) {
+                throw new IllegalArgumentException("Element is already in the queue.");
+            }
+            positions.remove(top);
+        }
+        place(0, element);
+        heapifyDown();
+        modificationCount++;
+        return top;
+    }
 
     /**
      * Пустой приватный метод, который поднимает наверх вставленный элемент для соблюдения свойства максимальной кучи.
-     * @see MyPriorityQueue#swap(int, int)
+     * @see MyPriorityQueue#heapifyUpFrom(int)
      * @see MyPriorityQueue#hasParent(int)
      */
     private void heapifyUp() {
-        int index = size - 1; // Забираем индекс последнего вставленного элемента.
+        heapifyUpFrom(size - 1); // Забираем индекс последнего вставленного элемента.
+    }
 
+    /**
+     * Подъём элемента с произвольного индекса.
+     * <br>Подъём «дыркой»: родители сдвигаются вниз, а сам элемент записывается один раз —
+     * каждая ячейка на пути читается и пишется по разу.</br>
+     * @param index индекс рассматриваемого узла
+     */
+    private void heapifyUpFrom(int index) {
+        T element = get(index);
         // Проверка проходит, пока есть родитель у индекса.
-        // Тормознётся на моменте, либо когда найдёт элемент, большие его самого, либо когда станет корнем
+        // Тормознётся на моменте, либо когда найдёт элемент, не больший его самого, либо когда станет корнем
+        int depth = 0;
         while (hasParent(index)) {
-            int parentIndex = (index - 1) / 2; // Формула родителя: (i-1) / 2.
+            int parentIndex = getParentIndex(index); // Формула родителя: (i-1) / d.
+            T parent = get(parentIndex);
 
-            // По свойству максимальной кучи:
-            // «если родитель больше элемента, то останавливаемся — он на своём месте»
-            if (this.compare(heap[parentIndex], heap[index]) <= 0) { break; }
+            // «Если родитель не больше элемента, то останавливаемся — элемент на своём месте»
+            if (this.compare(parent, element) <= 0) { break; }
 
-            // Меняем элементы по индексам родителя и текущего элемента, двигаясь наверх.
-            swap(parentIndex, index);
-            // Если поднялись на уровень родителя, то поимеем его индекс.
+            // Родитель спускается в дырку, а дырка поднимается на его место.
+            move(parent, index);
             index = parentIndex;
+            depth++;
         }
+        if (depth > 0) { place(index, element); }
+        if (HeapMetrics.ENABLED) { HeapMetrics.sift("MyPriorityQueue", HeapMetrics.Sift.UP, depth, size); }
     }
 
     /**
      * Частный случай метода {@link MyPriorityQueue#heapifyUp()}
      */
     private void heapifyAll() {
-        for (int i = size / 2 - 1; i >= 0; --i) {
+        // Начинаем с последнего узла, у которого есть хотя бы один ребёнок.
+        for (int i = getParentIndex(size - 1); i >= 0; --i) {
             heapifyDownFrom(i);
         }
     }
@@ -184,18 +447,16 @@ public class MyPriorityQueue<T>
     @Override public T poll() {
         if (isEmpty()) {
             return null;
-        } else if (size == 1) {
-            var maximum = heap[0]; // Забираем верхушку
-            size--;                // Понижаем размерность (теперь 0)
-            heap[0] = null;        // Заполняем пустоту ничем
-            modificationCount++;
-            return maximum;
-        }
-
-        T maximum = heap[0]; // Максимум ровно на верхушке.
-        heap[0] = heap[size - 1];  // Поставим последний поставленный.
-        size--;                    // Так как удалили верхушку — понижаем размер!
-        heapifyDown();             // Выставленный корень следует проверить на свойства кучи.
+        }
+
+        T maximum = get(0);        // Максимум ровно на верхушке.
+        T last = get(size - 1);
+        set(--size, null);         // Так как удалили верхушку — понижаем размер!
+        if (positions != null) { positions.remove(maximum); }
+        if (size > 0) {
+            place(0, last);        // Поставим последний поставленный.
+            heapifyDown();         // Выставленный корень следует проверить на свойства кучи.
+        }
         modificationCount++;
         return maximum;
     }
@@ -213,23 +474,47 @@ public class MyPriorityQueue<T>
     }
 
     /**
-     * Удаляет конкретный элемент и перестраивает кучу
+     * Удаляет конкретный элемент и перестраивает кучу.
+     * <br>В индексном режиме позиция берётся из индекса, без линейного поиска.</br>
      * @param o element to be removed from this collection, if present
      */
     @Override public boolean remove(Object o) {
+        if (positions != null) {
+            Integer index = positions.get(o);
+            if (index == null) { return false; }
+            removeAt(index);
+            return true;
+        }
+
         for (int i = 0; i < size; ++i) {
-            if (Objects.equals(heap[i], o)) {
-                heap[i] = heap[size - 1];
-                heap[size - 1] = null;
-                size--;
-                heapifyDownFrom(i);
-                modificationCount++;
+            if (Objects.equals(get(i), o)) {
+                removeAt(i);
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Удаление элемента по индексу: на его место встаёт последний элемент.
+     * @param index индекс удаляемого узла
+     */
+    private void removeAt(int index) {
+        T removed = get(index);
+        T last = get(size - 1);
+        set(--size, null);
+        if (positions != null) { positions.remove(removed); }
+
+        if (index < size) {
+            place(index, last);
+            // Последний элемент может оказаться меньше родителя удалённого — тогда поднимаем.
+            if (heapifyDownFrom(index) == index) {
+                heapifyUpFrom(index);
+            }
+        }
+        modificationCount++;
+    }
+
     @Override
     public boolean containsAll(Collection<?> c) {
         for (Object o : c) {
@@ -238,40 +523,109 @@ public class MyPriorityQueue<T>
         return true;
     }
 
+    /**
+     * Массовая вставка: ёмкость расширяется один раз под весь пакет.
+     * <br>Если пакет велик относительно кучи, элементы просто дописываются в конец,
+     * а куча перестраивается по Флойду за O(n + k) вместо k подъёмов по O(log n).</br>
+     * <br>В режиме top-K элементы проходят через {@link #offer(Object)}: не попавшие
+     * в K наибольших просто отсеиваются.</br>
+     * @param c добавляемые элементы
+     * @return {@code true}, если хотя бы один элемент был добавлен
+     */
     @Override
     public boolean addAll(Collection<? extends T> c) {
-        boolean modified = false;
+        if (c == this) throw new IllegalArgumentException("Cannot add queue to itself.");
+
+        int batch = c.size();
+        if (batch == 0) { return false; }
+
+        // В режиме top-K куча не растёт дальше предела — вставляем по одному.
+        boolean rebuild = (maxSize == 0) && shouldRebuild(batch);
+        if (maxSize == 0) { extraEnsureCapacity(size + batch); }
+        if (!rebuild) {
+            boolean modified = false;
+            for (T el : c) {
+                if (offer(el)) modified = true; // В режиме top-K отсеянные элементы — не ошибка
+            }
+            return modified;
+        }
+
+        int before = size;
         for (T el : c) {
-            if (add(el)) modified = true;
+            if (positions != null && positions.containsKey(el)) { continue; }
+            extraEnsureCapacity(); // На случай, если коллекция выросла после size()
+            place(size++, el);
         }
-        return modified;
+        if (size == before) { return false; }
+
+        heapifyAll();
+        modificationCount++;
+        return true;
+    }
+
+    /**
+     * Выгоднее ли перестроить кучу целиком, чем поднимать каждый элемент пакета.
+     * <br>Флойд тратит не больше 2(n + k) сравнений, а k подъёмов — до k на каждый уровень кучи.</br>
+     * @param batch размер пакета k
+     * @return {@code true}, если перестройка дешевле
+     */
+    private boolean shouldRebuild(int batch) {
+        long total = (long) size + batch;
+        int depth = 0;
+        for (long levelEnd = 1; levelEnd < total; levelEnd = levelEnd * arity + 1) {
+            depth++;
+        }
+        return (long) batch * depth >= 2 * total;
     }
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        boolean modified = false;
-        for (Object el : c) {
-            while (remove(el)) { // remove возвращает true, если элемент удалён
-                modified = true;
-            }
-        }
-        return modified;
+        Set<?> set = new HashSet<>(c); // ускоряем поиск
+        return removeIf(set::contains);
     }
 
     @Override
     public boolean retainAll(Collection<?> c) {
-        boolean modified = false;
         Set<?> set = new HashSet<>(c); // ускоряем поиск
-        int i = 0;
-        while (i < size) {
-            if (!set.contains(heap[i])) {
-                remove(heap[i]); // удаление перестраивает кучу
-                modified = true;
+        return removeIf(el -> !set.contains(el));
+    }
+
+    /**
+     * Массовое удаление за один проход: сначала помечаем удаляемые элементы,
+     * затем сжимаем массив и один раз перестраиваем кучу за O(n).
+     * <br>Если фильтр бросит исключение, куча останется нетронутой.</br>
+     * @param filter условие удаления
+     * @return {@code true}, если что-то было удалено
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+
+        long[] doomed = null; // Битовая маска удаляемых индексов
+        for (int i = 0; i < size; ++i) {
+            if (filter.test(get(i))) {
+                if (doomed == null) { doomed = new long[((size - 1) >> 6) + 1]; }
+                doomed[i >> 6] |= 1L << i;
+            }
+        }
+        if (doomed == null) { return false; }
+
+        int kept = 0;
+        for (int i = 0; i < size; ++i) {
+            T element = get(i);
+            if ((doomed[i >> 6] & (1L << i)) != 0) {
+                if (positions != null) { positions.remove(element); }
             } else {
-                i++;
+                place(kept++, element);
             }
         }
-        return modified;
+        for (int i = kept; i < size; ++i) {
+            set(i, null);
+        }
+        size = kept;
+        heapifyAll();
+        modificationCount++;
+        return true;
     }
 
     public boolean removeAll(T[] a) { return removeAll(Arrays.asList(a)); }
@@ -279,121 +633,124 @@ public class MyPriorityQueue<T>
     public boolean containsAll(T[] a) { return containsAll(Arrays.asList(a)); }
 
     /**
-     * Метод, спускающий корень вниз для установки свойства максимальной кучи.
-     * @see MyPriorityQueue#hasLeftChild(int)
-     * @see MyPriorityQueue#hasRightChild(int)
-     * @see MyPriorityQueue#getLeftChildIndex(int)
-     * @see MyPriorityQueue#getRightChildIndex(int)
-     * @see MyPriorityQueue#rightChild(int)
-     * @see MyPriorityQueue#leftChild(int)
+     * Метод, спускающий корень вниз для установки свойства минимальной кучи.
+     * @see MyPriorityQueue#heapifyDownFrom(int)
      */
     private void heapifyDown() {
-       int index = 0; // начиная с корня
-
-        // Проверяем, существует ли левый ребёнок (если его нет, то и правого нет).
-       while (hasLeftChild(index)) {
-           int lowerChildIndex = getLeftChildIndex(index); // Забираем левого ребёнка
-
-           /*
-           Проверяем:
-           (1) Существует ли правый ребёнок?
-           (2) Какой больше: правый или левый?
-            */
-           if (hasRightChild(index)
-                   && compare(rightChild(index), leftChild(index)) < 0) {
-               // Если есть правый, и он больше левого, то ставим его!
-               lowerChildIndex = getRightChildIndex(index);
-           }
-
-           // Именно такой проверкой мы гарантируем, что правило кучи не будет нарушено ни в коем случае.
-           // largerChildIndex — реально индекс большего ребёнка.
-
-           /*
-           Условие максимальной кучи:
-           «Если текущий корень больше или равен своему ребёнку, то стоп»
-            */
-           if (this.compare(heap[index], heap[lowerChildIndex]) <= 0) { break; }
-
-           // Спускаемся по куче вниз, пока не break'немся.
-           swap(index, lowerChildIndex);
-           index = lowerChildIndex;
-       }
+        heapifyDownFrom(0); // начиная с корня
     }
 
     /**
-     * Частный случай метода {@link MyPriorityQueue#heapifyDown()}.
+     * Спуск узла вниз, пока он больше наименьшего из своих детей.
      * @param index индекс рассматриваемого узла
+     * @return индекс, на котором узел остановился
+     * @see MyPriorityQueue#getFirstChildIndex(int)
      */
-    private void heapifyDownFrom(int index) {
-        int smallest = index;
-        int left = 2 * index + 1;
-        int right = 2 * index + 2;
+    private int heapifyDownFrom(int index) {
+        T element = get(index);
+        // Проверяем, существует ли первый ребёнок (если его нет, то и остальных нет).
+        int depth = 0;
+        while (hasChild(index)) {
+            int lowerChildIndex = getFirstChildIndex(index);
+            int lastChildIndex = Math.min(lowerChildIndex + arity, size);
+
+            // Ищем наименьшего среди всех детей: они лежат в массиве подряд, каждый читается один раз.
+            T lower = get(lowerChildIndex);
+            for (int child = lowerChildIndex + 1; child < lastChildIndex; ++child) {
+                T candidate = get(child);
+                if (compare(candidate, lower) < 0) {
+                    lowerChildIndex = child;
+                    lower = candidate;
+                }
+            }
 
-        if (left < this.size
-                && this.compare(heap[left], heap[smallest]) < 0) {
-            smallest = left;
-        }
-        if (right < this.size
-                && this.compare(heap[right], heap[smallest]) < 0) {
-            smallest = right;
-        }
+            /*
+            Условие минимальной кучи:
+            «Если текущий узел меньше или равен наименьшему ребёнку, то стоп»
+             */
+            if (this.compare(element, lower) <= 0) { break; }
 
-        if (smallest != index) {
-            swap(index, smallest);
-            heapifyDownFrom(smallest);
+            // Ребёнок поднимается в дырку, а дырка спускается на его место.
+            move(lower, index);
+            index = lowerChildIndex;
+            depth++;
         }
+        if (depth > 0) { place(index, element); }
+        if (HeapMetrics.ENABLED) { HeapMetrics.sift("MyPriorityQueue", HeapMetrics.Sift.DOWN, depth, size); }
+        return index;
     }
 
     /*
-        Помощники для получения индексов детей или родителя
+        Помощники для получения индексов детей или родителя (d-арная раскладка)
     */
-    private int getLeftChildIndex(int parentIndex) { return 2 * parentIndex + 1; }
-    private int getRightChildIndex(int parentIndex) { return 2 * parentIndex + 2; }
-    private int getParentIndex(int childIndex) { return (childIndex - 1) / 2; }
+    private int getFirstChildIndex(int parentIndex) { return arity * parentIndex + 1; }
+    private int getParentIndex(int childIndex) { return (childIndex - 1) / arity; }
 
 
     /*
         Логические помощники, проверяющие наличия родителя/детей
     */
-    private boolean hasLeftChild(int index) { return getLeftChildIndex(index) < size; }
-    private boolean hasRightChild(int index) { return getRightChildIndex(index) < size; }
-    private boolean hasParent(int index) { return getParentIndex(index) >= 0; }
+    private boolean hasChild(int index) { return (long) arity * index + 1 < size; }
+    private boolean hasParent(int index) { return index > 0; }
 
+    /**
+     * Увеличивающий ёмкость кучи метод, который вызывается при добавлении нового элемента.
+     * @see MyPriorityQueue#add(T)
+     */
+    private void extraEnsureCapacity() {
+        extraEnsureCapacity(size + 1);
+    }
+
+    /**
+     * Расширение сразу под требуемую ёмкость.
+     * <br>Пока куча помещается в один сегмент, он растёт как обычный массив; дальше
+     * добавляются новые полные сегменты, а старые элементы не копируются вовсе.</br>
+     * @param required требуемая ёмкость
+     */
+    private void extraEnsureCapacity(int required) {
+        long capacity = heap.capacity();
+        if (required <= capacity) { return; }
+
+        heap.ensureCapacity(required);
+        if (HeapMetrics.ENABLED) { HeapMetrics.resize("MyPriorityQueue", (int) capacity, (int) heap.capacity()); }
+    }
 
     /*
-        Получение непосредственных значений из кучи по индексу
+        Доступ к элементам кучи; копирование сегментов после snapshot() — внутри хранилища
     */
-    private T leftChild(int index) { return heap[getLeftChildIndex(index)]; }
-    private T rightChild(int index) { return heap[getRightChildIndex(index)]; }
+    private T get(int index) { return heap.get(index); }
+
+    private void set(int index, T element) { heap.set(index, element); }
 
     /**
-     * Увеличивающий вдвое ёмкость кучи метод, который вызывается при добавлении нового элемента.
-     * @see MyPriorityQueue#add(T)
+     * Шаг просеивания: соседний по пути элемент переезжает в дырку.
+     * <br>Для метрик это по-прежнему один обмен.</br>
+     * @param element переезжающий элемент
+     * @param index индекс дырки
      */
-    private void extraEnsureCapacity() {
-        if (size >= heap.length) {
-            int newCapacity = (heap.length < 64) ? (heap.length + 2) : (heap.length + (heap.length >> 1));
-            heap = Arrays.copyOf(heap, newCapacity);
-        }
+    private void move(T element, int index) {
+        if (HeapMetrics.ENABLED) { HeapMetrics.swap(); }
+        place(index, element);
     }
 
     /**
-     * Сваппер элементов, который будет полезен на этапах <i>heapify</i>.
-     * @param f индекс меняющего
-     * @param s индекс меняемого
+     * Запись элемента в ячейку с обновлением индекса позиций.
+     * @param index индекс ячейки
+     * @param element элемент
      */
-    private void swap(int f, int s) {
-        T temporary = heap[f];
-        heap[f] = heap[s];
-        heap[s] = temporary;
+    private void place(int index, T element) {
+        set(index, element);
+        if (positions != null) { positions.put(element, index); }
     }
 
     /**
      * Переопределённый метод очистки всех элементов в минимальной куче.
      */
-    @Override public void clear() {
-        Arrays.fill(this.heap, 0, this.size, null);
+    @Override
+    public void clear() {
+        heap.clear(size); // Если сегменты общие со снимком, они остаются ему
         this.size = 0;
+        if (positions != null) { positions.clear(); }
         modificationCount++;
     }
 
@@ -403,20 +760,23 @@ public class MyPriorityQueue<T>
      * @return {@code true} если содержится, и {@code false} в противном случае
      */
     @Override public boolean contains(Object o) {
+        if (positions != null) { return positions.containsKey(o); }
+
         for (int i = 0; i < size; ++i) {
-            if (Objects.equals(heap[i], o)) { return true; }
+            if (Objects.equals(get(i), o)) { return true; }
         }
         return false;
     }
 
+    /**
+     * Слияние с другой кучей прямо в текущем массиве (без отдельной копии обоих).
+     * <br>Маленькая куча вливается подъёмами, большая — дописыванием и одной перестройкой,
+     * см. {@link MyPriorityQueue#addAll(Collection)}. Для частых слияний за O(1) есть {@link PairingHeap}.</br>
+     * @param other другая куча, остаётся неизменной
+     */
     public void merge(MyPriorityQueue<T> other) {
-        int newSize = this.size + other.size;
-        T[] newHeap = Arrays.copyOf(this.heap, Math.max(newSize, heap.length));
-        System.arraycopy(other.heap, 0, newHeap, this.size, other.size);
-        this.heap = newHeap;
-        this.size = newSize;
-        heapifyAll();
-        modificationCount++;
+        MyPriorityQueue<T> source = (other == this) ? new MyPriorityQueue<>(other) : other;
+        addAll(source.elements());
     }
 
 
@@ -439,7 +799,7 @@ public class MyPriorityQueue<T>
         public T next() {
             checkForComodification();
             if (!hasNext()) { throw new NoSuchElementException("Heap is empty!"); }
-            return heap[cursor++];
+            return get(cursor++);
         }
 
         private void checkForComodification() {
@@ -452,6 +812,161 @@ public class MyPriorityQueue<T>
     @Override
     public Iterator<T> iterator() { return new PriorityIterator(); }
 
+    /**
+     * Делимый сплитератор над массивом кучи (порядок — порядок массива, не приоритета).
+     * <br>Граница и ожидаемый счётчик модификаций фиксируются при первом обходе или делении,
+     * поэтому изменения между созданием потока и его запуском допустимы.
+     * После обхода изменение очереди приводит к {@link ConcurrentModificationException}.</br>
+     */
+    private final class HeapSpliterator implements Spliterator<T> {
+        private int index;           // Текущая позиция
+        private int fence;           // -1 до первого использования, затем конец диапазона
+        private int expectedModCount;
+
+        HeapSpliterator(int origin, int fence, int expectedModCount) {
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            int hi = fence;
+            if (hi < 0) {
+                expectedModCount = modificationCount;
+                hi = fence = size;
+            }
+            return hi;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int hi = getFence();
+            int lo = index;
+            int mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null : new HeapSpliterator(lo, index = mid, expectedModCount);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            int i = index;
+            if (i >= hi) { return false; }
+
+            index = i + 1;
+            T element = get(i);
+            action.accept(element);
+            if (modificationCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            SegmentedStore<T> elements = heap; // Читаем поле один раз — горячий цикл без лишних обращений
+            for (int i = index; i < hi; ++i) {
+                action.accept(elements.get(i));
+            }
+            index = hi;
+            if (modificationCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() { return getFence() - index; }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * Сплитератор с точным размером и делением пополам — {@code stream().parallel()}
+     * раздаёт части массива потокам {@link java.util.concurrent.ForkJoinPool}.
+     * @return сплитератор в порядке массива кучи
+     */
+    @Override
+    public Spliterator<T> spliterator() { return new HeapSpliterator(0, -1, 0); }
+
+    /**
+     * Неизменяемый снимок содержимого за O(1): сегменты не копируются, а разделяются со снимком.
+     * <br>Снимок забирает текущий каталог сегментов. Очередь копирует сегмент только перед первой
+     * записью в него после снимка, поэтому писатель платит O(размер сегмента) за каждый
+     * затронутый сегмент — для {@code add}/{@code poll} это сегменты на пути по куче, O(log n) штук, —
+     * а не копию всего массива.</br>
+     * <br>Снимок нужно брать в том же потоке, что изменяет очередь (или под той же
+     * синхронизацией); дальше его можно отдать любым потокам-читателям —
+     * он неизменяем и не блокирует писателя.</br>
+     * @return снимок текущего состояния
+     */
+    public PriorityQueueSnapshot<T> snapshot() {
+        return new PriorityQueueSnapshot<>(heap.share(), size, comparator, arity);
+    }
+
+    /**
+     * Итератор в порядке приоритета, лениво обходящий кучу без копирования и без извлечений.
+     * <br>Первые k элементов стоят O(k log k), поэтому «следующие несколько»
+     * из огромной очереди достаются дёшево. Fail-fast, как и обычный итератор.</br>
+     * @return итератор от наименьшего к наибольшему
+     */
+    public Iterator<T> orderedIterator() {
+        int expectedModCount = modificationCount;
+        return new OrderedHeapIterator<>(this::get, size, comparator, arity) {
+            @Override
+            protected void checkForComodification() {
+                if (modificationCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        };
+    }
+
+    /**
+     * Поток элементов в порядке приоритета поверх {@link MyPriorityQueue#orderedIterator()}.
+     * <br>Например, {@code orderedStream().limit(10)} не трогает остальную кучу.</br>
+     * @return последовательный упорядоченный поток
+     */
+    public Stream<T> orderedStream() {
+        return StreamSupport.stream(
+                Spliterators.spliterator(orderedIterator(), size, Spliterator.ORDERED),
+                false);
+    }
+
+    /**
+     * Извлечение до {@code maxElements} наименьших элементов в приёмник в порядке приоритета.
+     * @param sink приёмник
+     * @param maxElements максимум извлекаемых элементов
+     * @return число извлечённых элементов
+     */
+    public int drainTo(Consumer<? super T> sink, int maxElements) {
+        Objects.requireNonNull(sink);
+
+        int drained = 0;
+        while (drained < maxElements && !isEmpty()) {
+            sink.accept(poll());
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Извлечение {@code k} наименьших элементов одним вызовом.
+     * @param k сколько элементов забрать
+     * @return до {@code k} элементов от наименьшего к наибольшему
+     */
+    public List<T> pollBatch(int k) {
+        if (k < 0) throw new IllegalArgumentException("Batch size must not be negative.");
+
+        List<T> batch = new ArrayList<>(Math.min(k, size));
+        drainTo(batch::add, k);
+        return batch;
+    }
+
 
     /**
      * @return текущая размерность кучи
@@ -468,21 +983,37 @@ public class MyPriorityQueue<T>
      * Копирование в массив.
      * @return массив типа кучи.
      */
-    @Override public Object[] toArray() { return Arrays.copyOf(heap, size); }
+    @Override public Object[] toArray() { return toArray(new Object[size]); }
 
     @Override
     @SuppressWarnings("unchecked")
     public <E> E[] toArray(E[] a) {
-        if (a == null || a.length < size) {
-            return (E[]) Arrays.copyOf(heap, size, a == null ? Object[].class : a.getClass());
+        if (a == null) { a = (E[]) new Object[size]; }
+        if (a.length < size) {
+            a = (E[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
         }
-        System.arraycopy(heap, 0, a, 0, size);
+        heap.copyTo(a, size);
         if (a.length > size) a[size] = null;
         return a;
     }
 
+    /**
+     * Элементы в порядке раскладки кучи как список только для чтения, без копии.
+     */
+    private List<T> elements() {
+        return new AbstractList<T>() {
+            @Override public T get(int index) {
+                Objects.checkIndex(index, size);
+                return MyPriorityQueue.this.get(index);
+            }
+
+            @Override public int size() { return size; }
+        };
+    }
+
     @SuppressWarnings("unchecked")
     public int compare(T o1, T o2) {
+        if (HeapMetrics.ENABLED) { HeapMetrics.comparison(); }
         if (comparator != null) return comparator.compare(o1, o2);
         return ((Comparable<? super T>) o1).compareTo(o2);
     }
@@ -0,0 +1,226 @@
+package tasks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Потоковое чтение чисел из текстового файла прямо из байтов канала — без строк и упаковки.
+ * <br>Правила те же, что у построчного чтения: числа разделены пробельными символами,
+ * строка, первый непробельный символ которой {@code #}, — комментарий,
+ * а токен, который не разбирается как {@code double}, пропускается и передаётся в {@code onInvalid}.</br>
+ * <br>Простые десятичные записи (до 19 значащих цифр, порядок в пределах ±22) разбираются
+ * быстрым путём Клингера: мантисса точно представима, степень десяти тоже, и одно умножение
+ * или деление даёт правильно округлённый результат. Всё остальное — через {@link Double#parseDouble}.</br>
+ */
+final class NumberTokenizer implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final Consumer<String> onInvalid;
+    private final byte[] buffer = new byte[BUFFER_BYTES];
+    private final ByteBuffer window = ByteBuffer.wrap(buffer);
+    private int position;
+    private int limit;
+
+    private byte[] token = new byte[64]; // Токен целиком, даже если он разрезан границей буфера
+    private int tokenLength;
+    private boolean lineStart = true;
+
+    private double value;
+    private long count;
+
+    /**
+     * @param path файл
+     * @param onInvalid получатель пропущенных нечисловых токенов
+     */
+    NumberTokenizer(Path path, Consumer<String> onInvalid) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.onInvalid = onInvalid;
+    }
+
+    /**
+     * Переход к следующему числу.
+     * @return {@code false}, если чисел больше нет
+     */
+    boolean next() throws IOException {
+        while (nextToken()) {
+            if (parse()) {
+                count++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return последнее прочитанное число
+     */
+    double value() { return value; }
+
+    /**
+     * @return сколько чисел прочитано
+     */
+    long count() { return count; }
+
+    /**
+     * Чтение чисел подряд в массив.
+     * @return сколько удалось прочитать; меньше длины — файл кончился
+     */
+    int read(double[] target) throws IOException {
+        for (int i = 0; i < target.length; ++i) {
+            if (!next()) { return i; }
+            target[i] = value;
+        }
+        return target.length;
+    }
+
+    /**
+     * Следующий токен в {@code token}; комментарии пропускаются.
+     */
+    private boolean nextToken() throws IOException {
+        tokenLength = 0;
+        while (true) {
+            if (position == limit && !fill()) { return tokenLength > 0; }
+
+            byte b = buffer[position];
+            if (isSpace(b)) {
+                if (tokenLength > 0) { return true; }
+                position++;
+                if (b == '\n' || b == '\r') { lineStart = true; }
+            } else if (lineStart && b == '#') {
+                skipLine();
+            } else {
+                lineStart = false;
+                if (tokenLength == token.length) {
+                    token = Arrays.copyOf(token, token.length * 2);
+                }
+                token[tokenLength++] = b;
+                position++;
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        while (position < limit || fill()) {
+            byte b = buffer[position];
+            if (b == '\n' || b == '\r') { return; }
+            position++;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        window.clear();
+        int read;
+        do {
+            read = channel.read(window);
+        } while (read == 0);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    /**
+     * Разбор токена в {@code value}.
+     * @return {@code false}, если токен не число
+     */
+    private boolean parse() {
+        if (parseFast()) { return true; }
+
+        String text = new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+        try {
+            value = Double.parseDouble(text);
+            return true;
+        } catch (NumberFormatException ex) {
+            onInvalid.accept(text);
+            return false;
+        }
+    }
+
+    /**
+     * Быстрый путь Клингера для {@code [+-]digits[.digits][(e|E)[+-]digits]}.
+     * @return {@code false}, если запись не подходит — тогда решает {@link Double#parseDouble}
+     */
+    private boolean parseFast() {
+        int i = 0;
+        boolean negative = false;
+        if (token[0] == '+' || token[0] == '-') {
+            negative = token[0] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean point = false;
+        for (; i < tokenLength; ++i) {
+            byte b = token[i];
+            if (b >= '0' && b <= '9') {
+                if (mantissa >= 100_000_000_000_000_000L) { return false; } // Больше 19 цифр
+                mantissa = mantissa * 10 + (b - '0');
+                digits = true;
+                if (point) { exponent--; }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (!digits) { return false; }
+
+        if (i < tokenLength && (token[i] == 'e' || token[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < tokenLength && (token[i] == '+' || token[i] == '-')) {
+                negativeExponent = token[i] == '-';
+                i++;
+            }
+            if (i == tokenLength) { return false; }
+
+            int written = 0;
+            for (; i < tokenLength; ++i) {
+                byte b = token[i];
+                if (b < '0' || b > '9' || written > 1000) { return false; }
+                written = written * 10 + (b - '0');
+            }
+            exponent += negativeExponent ? -written : written;
+        }
+        if (i != tokenLength) { return false; }
+
+        double result;
+        if (mantissa == 0) {
+            result = 0.0;
+        } else if (mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            result = (exponent >= 0)
+                    ? mantissa * POWERS_OF_TEN[exponent]
+                    : mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return false;
+        }
+        value = negative ? -result : result;
+        return true;
+    }
+
+    /**
+     * Пробельные символы — как у {@link String#trim()}: всё, что не больше пробела.
+     */
+    private static boolean isSpace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
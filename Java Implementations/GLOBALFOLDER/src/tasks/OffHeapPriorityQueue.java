@@ -0,0 +1,236 @@
+package tasks;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.NoSuchElementException;
+
+/**
+ * Очередь с приоритетом над записями фиксированного размера вне кучи Java.
+ * <br>Каждая запись — пара {@code long}: ключ, по которому строится минимальная куча,
+ * и полезная нагрузка (идентификатор, смещение и т.п.). Записи лежат подряд в
+ * {@link MemorySegment}, выделенном из собственной {@link Arena}, поэтому даже
+ * сотни миллионов записей не добавляют ни заголовков объектов, ни работы сборщику мусора.</br>
+ * <br>Память освобождается явно через {@link OffHeapPriorityQueue#close()};
+ * после закрытия любые операции с содержимым бросают {@link IllegalStateException}.
+ * Арена ограничена потоком-создателем, как и сама очередь — однопоточная.</br>
+ * @see LongPriorityQueue
+ */
+public class OffHeapPriorityQueue implements AutoCloseable {
+    private static final long RECORD_BYTES = 2L * Long.BYTES; // Ключ + полезная нагрузка
+    private static final long DEFAULT_CAPACITY = 1024;        // Записей по умолчанию
+
+    private static final ValueLayout.OfLong SLOT = ValueLayout.JAVA_LONG;
+
+    private Arena arena;           // Владелец текущего сегмента
+    private MemorySegment records; // Куча: [ключ0, нагрузка0, ключ1, нагрузка1, ...]
+    private long capacity;         // Ёмкость в записях
+    private long size;             // Текущее число записей
+
+    private final LongPriorityQueue.LongComparator comparator; // {@code null} — естественный порядок ключей
+
+    /**
+     * Очередь с ёмкостью по умолчанию и естественным порядком ключей.
+     */
+    public OffHeapPriorityQueue() {
+        this(DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Конструктор с параметром ёмкости.
+     * @param initCapacity начальная ёмкость в записях
+     */
+    public OffHeapPriorityQueue(long initCapacity) {
+        this(initCapacity, null);
+    }
+
+    /**
+     * Конструктор с входными параметрами.
+     * @param initCapacity начальная ёмкость в записях
+     * @param comparator компаратор ключей, {@code null} — естественный порядок
+     */
+    public OffHeapPriorityQueue(long initCapacity, LongPriorityQueue.LongComparator comparator) {
+        if (initCapacity < 1) throw new IllegalArgumentException("Negative dimension of heap.");
+
+        this.comparator = comparator;
+        this.capacity = initCapacity;
+        this.arena = Arena.ofConfined();
+        this.records = arena.allocate(initCapacity * RECORD_BYTES, Long.BYTES);
+    }
+
+    /**
+     * Добавление записи.
+     * @param key ключ приоритета
+     * @param payload полезная нагрузка
+     * @return всегда {@code true}
+     */
+    public boolean add(long key, long payload) {
+        ensureCapacity(size + 1);
+        siftUp(size++, key, payload);
+        return true;
+    }
+
+    /**
+     * Аналог {@code add()} — очередь неограниченная.
+     */
+    public boolean offer(long key, long payload) { return add(key, payload); }
+
+    /**
+     * @return ключ верхушки
+     * @throws NoSuchElementException если куча пуста
+     */
+    public long peekKey() {
+        checkNotEmpty();
+        return key(0);
+    }
+
+    /**
+     * @return полезная нагрузка верхушки
+     * @throws NoSuchElementException если куча пуста
+     */
+    public long peekPayload() {
+        checkNotEmpty();
+        return payload(0);
+    }
+
+    /**
+     * Удаление верхушки. Её ключ, если нужен, читается заранее через {@link #peekKey()}.
+     * @return полезная нагрузка удалённой записи
+     * @throws NoSuchElementException если куча пуста
+     */
+    public long poll() {
+        checkNotEmpty();
+
+        long payload = payload(0);
+        long last = --size;
+        if (last > 0) {
+            siftDown(0, key(last), payload(last));
+        }
+        return payload;
+    }
+
+    /**
+     * Слияние: записи другой очереди дописываются в конец, куча перестраивается за O(n + m).
+     * @param other другая очередь, остаётся неизменной
+     */
+    public void merge(OffHeapPriorityQueue other) {
+        ensureCapacity(size + other.size);
+        MemorySegment.copy(other.records, 0, records, size * RECORD_BYTES, other.size * RECORD_BYTES);
+        size += other.size;
+        heapifyAll();
+    }
+
+    /**
+     * Очистка без освобождения памяти — сегмент переиспользуется.
+     */
+    public void clear() { size = 0; }
+
+    public long size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * @return текущий объём памяти вне кучи в байтах
+     */
+    public long reservedBytes() { return capacity * RECORD_BYTES; }
+
+    /**
+     * Освобождение памяти. Повторный вызов ничего не делает.
+     */
+    @Override
+    public void close() {
+        if (arena != null) {
+            arena.close();
+            arena = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * Построение кучи по Флойду за линейное время.
+     */
+    private void heapifyAll() {
+        for (long i = (size >>> 1) - 1; i >= 0; --i) {
+            siftDown(i, key(i), payload(i));
+        }
+    }
+
+    /**
+     * Подъём «дыркой»: записи-родители сдвигаются вниз, новая запись пишется один раз.
+     */
+    private void siftUp(long index, long key, long payload) {
+        while (index > 0) {
+            long parentIndex = (index - 1) >>> 1;
+            long parentKey = key(parentIndex);
+            if (compare(parentKey, key) <= 0) { break; }
+
+            write(index, parentKey, payload(parentIndex));
+            index = parentIndex;
+        }
+        write(index, key, payload);
+    }
+
+    /**
+     * Спуск «дыркой» от заданного индекса.
+     */
+    private void siftDown(long index, long key, long payload) {
+        long half = size >>> 1; // У узлов с индексом меньше half есть хотя бы левый ребёнок
+        while (index < half) {
+            long childIndex = 2 * index + 1;
+            long childKey = key(childIndex);
+            long rightIndex = childIndex + 1;
+            if (rightIndex < size) {
+                long rightKey = key(rightIndex);
+                if (compare(rightKey, childKey) < 0) {
+                    childIndex = rightIndex;
+                    childKey = rightKey;
+                }
+            }
+            if (compare(key, childKey) <= 0) { break; }
+
+            write(index, childKey, payload(childIndex));
+            index = childIndex;
+        }
+        write(index, key, payload);
+    }
+
+    /**
+     * Рост в полтора раза: новый сегмент в новой арене, старая арена сразу закрывается.
+     * @param required требуемая ёмкость в записях
+     */
+    private void ensureCapacity(long required) {
+        if (arena == null) throw new IllegalStateException("Queue is closed.");
+        if (required <= capacity) { return; }
+
+        long newCapacity = Math.max(required, capacity + (capacity >> 1));
+        Arena newArena = Arena.ofConfined();
+        MemorySegment newRecords = newArena.allocate(newCapacity * RECORD_BYTES, Long.BYTES);
+        MemorySegment.copy(records, 0, newRecords, 0, size * RECORD_BYTES);
+
+        arena.close();
+        arena = newArena;
+        records = newRecords;
+        capacity = newCapacity;
+    }
+
+    /*
+        Доступ к полям записи по её индексу
+    */
+    private long key(long index) { return records.getAtIndex(SLOT, 2 * index); }
+    private long payload(long index) { return records.getAtIndex(SLOT, 2 * index + 1); }
+
+    private void write(long index, long key, long payload) {
+        records.setAtIndex(SLOT, 2 * index, key);
+        records.setAtIndex(SLOT, 2 * index + 1, payload);
+    }
+
+    private void checkNotEmpty() {
+        if (arena == null) throw new IllegalStateException("Queue is closed.");
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+    }
+
+    private int compare(long first, long second) {
+        if (comparator != null) return comparator.compare(first, second);
+        return Long.compare(first, second);
+    }
+}
@@ -0,0 +1,64 @@
+package tasks;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Итератор, выдающий элементы d-арной кучи в порядке приоритета без её изменения.
+ * <br>Держит «фронт» — вспомогательную кучу индексов исходного массива: берём наименьший
+ * индекс из фронта и добавляем в него детей этого узла. Поэтому первые k элементов
+ * стоят O(k log k) и не требуют ни копии всего массива, ни его сортировки.</br>
+ * @param <T> тип элементов
+ */
+class OrderedHeapIterator<T> implements Iterator<T> {
+    private final IntFunction<T> heap; // Доступ к элементу по индексу раскладки кучи
+    private final int size;
+    private final int arity;
+    private final IntPriorityQueue frontier; // Индексы узлов, чьи родители уже выданы
+
+    /**
+     * @param heap доступ к элементам раскладки, удовлетворяющей свойству d-арной минимальной кучи
+     * @param size число элементов кучи
+     * @param comparator компаратор кучи, {@code null} — естественный порядок
+     * @param arity арность кучи
+     */
+    @SuppressWarnings("unchecked")
+    OrderedHeapIterator(IntFunction<T> heap, int size, Comparator<? super T> comparator, int arity) {
+        this.heap = heap;
+        this.size = size;
+        this.arity = arity;
+        this.frontier = new IntPriorityQueue(Math.max(1, Math.min(size, 16)),
+                (comparator != null)
+                        ? (a, b) -> comparator.compare(heap.apply(a), heap.apply(b))
+                        : (a, b) -> ((Comparable<? super T>) heap.apply(a)).compareTo(heap.apply(b)));
+        if (size > 0) {
+            frontier.add(0);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        checkForComodification();
+        return !frontier.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        checkForComodification();
+        if (frontier.isEmpty()) { throw new NoSuchElementException("Heap is exhausted!"); }
+
+        int index = frontier.poll();
+        long first = (long) arity * index + 1;
+        for (long child = first; child < first + arity && child < size; ++child) {
+            frontier.add((int) child);
+        }
+        return heap.apply(index);
+    }
+
+    /**
+     * Проверка на изменение кучи во время обхода; по умолчанию куча считается неизменной.
+     */
+    protected void checkForComodification() { }
+}
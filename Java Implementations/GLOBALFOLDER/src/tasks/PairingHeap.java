@@ -0,0 +1,332 @@
+package tasks;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Сливаемая очередь с приоритетом на основе <b>парной кучи</b> (pairing heap).
+ * <br>В отличие от {@link MyPriorityQueue}, где слияние копирует массив и перестраивает
+ * кучу за O(n + m), здесь {@link #meld(PairingHeap)} просто подвешивает один корень
+ * к другому за O(1). Вставка — O(1), извлечение минимума — амортизированно O(log n)
+ * (двухпроходное попарное слияние детей корня).</br>
+ * <br>Узлы хранятся в представлении «левый ребёнок — правый брат»; ссылка {@code prev}
+ * указывает на родителя у первого ребёнка и на левого брата у остальных,
+ * поэтому любой узел можно вырезать за O(1).</br>
+ * @param <T> тип элементов
+ */
+public class PairingHeap<T> extends AbstractQueue<T> {
+
+    private static final class Node<T> {
+        T element;
+        Node<T> child; // Первый (самый левый) ребёнок
+        Node<T> next;  // Правый брат
+        Node<T> prev;  // Родитель для первого ребёнка, иначе левый брат
+
+        Node(T element) { this.element = element; }
+    }
+
+    private Node<T> root;
+    private int size;
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Буфер для первого прохода попарного слияния — переиспользуется между {@code poll()}.
+     */
+    private final ArrayList<Node<T>> pairs = new ArrayList<>();
+
+    /**
+     * Fail-fast счётчик модификаций для итератора.
+     */
+    private int modificationCount = 0;
+
+    /**
+     * Куча с естественным порядком элементов.
+     */
+    public PairingHeap() {
+        this(null);
+    }
+
+    /**
+     * @param comparator компаратор, {@code null} — естественный порядок
+     */
+    public PairingHeap(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Вставка за O(1): новый узел сливается с корнем.
+     * @param element элемент, не {@code null}
+     * @return всегда {@code true}
+     */
+    @Override
+    public boolean offer(T element) {
+        Objects.requireNonNull(element);
+        root = link(root, new Node<>(element));
+        size++;
+        modificationCount++;
+        return true;
+    }
+
+    @Override
+    public T peek() {
+        return (root == null) ? null : root.element;
+    }
+
+    /**
+     * Извлечение минимума: дети корня сливаются попарно слева направо,
+     * затем результаты — справа налево.
+     * @return минимум или {@code null}, если куча пуста
+     */
+    @Override
+    public T poll() {
+        if (root == null) { return null; }
+
+        T minimum = root.element;
+        root = combineSiblings(root.child);
+        size--;
+        modificationCount++;
+        return minimum;
+    }
+
+    /**
+     * Слияние за O(1): все узлы {@code other} переходят в эту кучу, {@code other} становится пустой.
+     * <br>Обе кучи должны упорядочивать элементы одинаково.</br>
+     * @param other другая куча
+     */
+    public void meld(PairingHeap<T> other) {
+        if (other == this) throw new IllegalArgumentException("Cannot meld heap with itself.");
+        if (other.root == null) { return; }
+
+        root = link(root, other.root);
+        size += other.size;
+        modificationCount++;
+
+        other.root = null;
+        other.size = 0;
+        other.modificationCount++;
+    }
+
+    /**
+     * Удаление конкретного элемента: узел вырезается вместе с поддеревом,
+     * его дети сливаются попарно и подвешиваются обратно к корню.
+     * @param o удаляемый элемент
+     * @return {@code true}, если элемент был найден
+     */
+    @Override
+    public boolean remove(Object o) {
+        Node<T> node = find(o);
+        if (node == null) { return false; }
+
+        if (node == root) {
+            poll();
+            return true;
+        }
+
+        // Вырезаем узел из списка братьев.
+        if (node.prev.child == node) {
+            node.prev.child = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next != null) { node.next.prev = node.prev; }
+
+        root = link(root, combineSiblings(node.child));
+        size--;
+        modificationCount++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return find(o) != null;
+    }
+
+    /**
+     * Массовое удаление: сначала проверяем все элементы, затем подвешиваем
+     * уцелевшие узлы к новому корню за O(n). Если фильтр бросит исключение, куча не изменится.
+     * @param filter условие удаления
+     * @return {@code true}, если что-то было удалено
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+
+        List<Node<T>> nodes = collectNodes();
+        boolean[] doomed = new boolean[nodes.size()];
+        boolean modified = false;
+        for (int i = 0; i < doomed.length; ++i) {
+            if (filter.test(nodes.get(i).element)) {
+                doomed[i] = true;
+                modified = true;
+            }
+        }
+        if (!modified) { return false; }
+
+        root = null;
+        size = 0;
+        for (int i = 0; i < doomed.length; ++i) {
+            if (doomed[i]) { continue; }
+
+            Node<T> node = nodes.get(i);
+            node.child = node.next = node.prev = null;
+            root = link(root, node);
+            size++;
+        }
+        modificationCount++;
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Set<?> set = new HashSet<>(c); // ускоряем поиск
+        return removeIf(set::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Set<?> set = new HashSet<>(c); // ускоряем поиск
+        return removeIf(el -> !set.contains(el));
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+        modificationCount++;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    /**
+     * @return компаратор кучи или {@code null} для естественного порядка
+     */
+    public Comparator<? super T> comparator() { return comparator; }
+
+    /**
+     * Обход в глубину в произвольном порядке. Удаление через итератор не поддерживается.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<Node<T>> stack = new ArrayDeque<>();
+            private final int expectedModCount = modificationCount;
+
+            {
+                if (root != null) { stack.push(root); }
+            }
+
+            @Override
+            public boolean hasNext() {
+                checkForComodification();
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                checkForComodification();
+                if (stack.isEmpty()) { throw new NoSuchElementException("Heap is empty!"); }
+
+                Node<T> node = stack.pop();
+                if (node.next != null) { stack.push(node.next); }
+                if (node.child != null) { stack.push(node.child); }
+                return node.element;
+            }
+
+            private void checkForComodification() {
+                if (modificationCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        };
+    }
+
+    /**
+     * Слияние двух деревьев: корень с большим элементом становится первым ребёнком меньшего.
+     */
+    private Node<T> link(Node<T> first, Node<T> second) {
+        if (first == null) { return second; }
+        if (second == null) { return first; }
+
+        if (compare(second.element, first.element) < 0) {
+            Node<T> temporary = first;
+            first = second;
+            second = temporary;
+        }
+
+        second.prev = first;
+        second.next = first.child;
+        if (first.child != null) { first.child.prev = second; }
+        first.child = second;
+        first.next = null;
+        first.prev = null;
+        return first;
+    }
+
+    /**
+     * Двухпроходное попарное слияние списка братьев. Итеративно — без риска переполнить стек.
+     * @param first первый узел списка
+     * @return корень получившегося дерева
+     */
+    private Node<T> combineSiblings(Node<T> first) {
+        if (first == null) { return null; }
+
+        pairs.clear();
+        Node<T> current = first;
+        while (current != null) {
+            Node<T> second = current.next;
+            if (second == null) {
+                current.prev = null;
+                pairs.add(current);
+                break;
+            }
+            Node<T> rest = second.next;
+            current.next = current.prev = null;
+            second.next = second.prev = null;
+            pairs.add(link(current, second));
+            current = rest;
+        }
+
+        Node<T> result = pairs.get(pairs.size() - 1);
+        for (int i = pairs.size() - 2; i >= 0; --i) {
+            result = link(pairs.get(i), result);
+        }
+        pairs.clear();
+        return result;
+    }
+
+    private Node<T> find(Object o) {
+        if (root == null) { return null; }
+
+        ArrayDeque<Node<T>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.pop();
+            if (Objects.equals(node.element, o)) { return node; }
+            if (node.next != null) { stack.push(node.next); }
+            if (node.child != null) { stack.push(node.child); }
+        }
+        return null;
+    }
+
+    private List<Node<T>> collectNodes() {
+        List<Node<T>> nodes = new ArrayList<>(size);
+        if (root == null) { return nodes; }
+
+        ArrayDeque<Node<T>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.pop();
+            nodes.add(node);
+            if (node.next != null) { stack.push(node.next); }
+            if (node.child != null) { stack.push(node.child); }
+        }
+        return nodes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(T o1, T o2) {
+        if (comparator != null) return comparator.compare(o1, o2);
+        return ((Comparable<? super T>) o1).compareTo(o2);
+    }
+}
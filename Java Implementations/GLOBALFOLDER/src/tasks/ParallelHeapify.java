@@ -0,0 +1,102 @@
+package tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Параллельное построение d-арной кучи по Флойду на {@link ForkJoinPool}.
+ * <br>Спуск узла затрагивает только его поддерево, поэтому поддеревья детей можно
+ * строить независимо, а корень спускать после них. Любой порядок «дети раньше родителя»
+ * даёт тот же массив, что и последовательный проход от последнего родителя к корню, —
+ * результат совпадает с последовательной сборкой побайтово.</br>
+ * <br>Поддеревья меньше порога строятся последовательно: дробить их дороже, чем считать.</br>
+ */
+@SuppressWarnings("serial") // Задача пула, не сериализуется
+final class ParallelHeapify extends RecursiveAction {
+    static final int DEFAULT_THRESHOLD = 1 << 16; // Узлов в поддереве
+
+    private final int root;
+    private final int size;
+    private final int arity;
+    private final int threshold;
+    private final IntConsumer siftDown; // Спуск узла кучи-владельца
+
+    private ParallelHeapify(int root, int size, int arity, int threshold, IntConsumer siftDown) {
+        this.root = root;
+        this.size = size;
+        this.arity = arity;
+        this.threshold = threshold;
+        this.siftDown = siftDown;
+    }
+
+    /**
+     * Построение кучи из {@code size} элементов в общем пуле.
+     * @param size число элементов
+     * @param arity арность кучи
+     * @param siftDown спуск узла; вызывается одновременно только для непересекающихся поддеревьев
+     */
+    static void heapify(int size, int arity, IntConsumer siftDown) {
+        heapify(size, arity, DEFAULT_THRESHOLD, siftDown);
+    }
+
+    static void heapify(int size, int arity, int threshold, IntConsumer siftDown) {
+        if (size < 2) { return; }
+
+        ParallelHeapify task = new ParallelHeapify(0, size, arity, Math.max(threshold, 1), siftDown);
+        if (size <= threshold) {
+            task.compute(); // Маленькая куча — без пула
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (subtreeSize() <= threshold) {
+            heapifySubtree();
+            return;
+        }
+
+        long firstChild = (long) arity * root + 1;
+        long lastChild = Math.min(firstChild + arity, size);
+        List<ParallelHeapify> children = new ArrayList<>(arity);
+        for (long child = firstChild; child < lastChild; ++child) {
+            if ((long) arity * child + 1 < size) { // Листья уже кучи
+                children.add(new ParallelHeapify((int) child, size, arity, threshold, siftDown));
+            }
+        }
+        invokeAll(children);
+        siftDown.accept(root);
+    }
+
+    /**
+     * Число узлов в поддереве: на каждом уровне оно занимает отрезок индексов подряд.
+     */
+    private long subtreeSize() {
+        long count = 0;
+        for (long low = root, high = root; low < size; low = arity * low + 1, high = arity * high + arity) {
+            count += Math.min(high, size - 1) - low + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Последовательный Флойд внутри поддерева: уровни снизу вверх, на уровне — справа налево.
+     */
+    private void heapifySubtree() {
+        long lastParent = (size - 2) / arity;
+        List<long[]> levels = new ArrayList<>();
+        for (long low = root, high = root; low <= lastParent; low = arity * low + 1, high = arity * high + arity) {
+            levels.add(new long[]{low, Math.min(high, lastParent)});
+        }
+        for (int level = levels.size() - 1; level >= 0; --level) {
+            long[] range = levels.get(level);
+            for (long i = range[1]; i >= range[0]; --i) {
+                siftDown.accept((int) i);
+            }
+        }
+    }
+}
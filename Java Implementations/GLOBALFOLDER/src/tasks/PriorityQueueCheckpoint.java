@@ -0,0 +1,135 @@
+package tasks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный снимок {@link MyPriorityQueue} на диск и быстрое восстановление из него.
+ * <br>Массив кучи пишется как есть, в раскладке кучи, поэтому при чтении его не нужно
+ * перестраивать: восстановление — это одно последовательное чтение файла через
+ * отображение в память, без единого сравнения. Холодный старт упирается в диск, а не в компаратор.</br>
+ * <br>Формат (big-endian): заголовок {@code [int магия][int версия][int арность][int число]
+ * [long CRC32C][int флаги][int предел top-K]}, затем записи {@code [int длина][байты]} в формате
+ * {@link RunWriter}. Флаги и предел сохраняют режим очереди: индексная и ограниченная очереди
+ * восстанавливаются в том же режиме. Снимки версии 1 (без флагов и предела) читаются как обычные очереди.
+ * Контрольная сумма покрывает все записи; файл пишется во временный и атомарно переименовывается.</br>
+ * <br>Восстанавливать нужно с тем же компаратором, с которым очередь сохранялась, —
+ * порядок не перепроверяется.</br>
+ */
+public final class PriorityQueueCheckpoint {
+    private static final int MAGIC = 0x50514350; // "PQCP"
+    private static final int VERSION = 2;
+    private static final int V1_HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES;
+    private static final int HEADER_BYTES = V1_HEADER_BYTES + 2 * Integer.BYTES;
+    private static final int FLAG_INDEXED = 1;
+
+    private PriorityQueueCheckpoint() { }
+
+    /**
+     * Сохранение очереди. Содержимое берётся через {@link MyPriorityQueue#snapshot()},
+     * так что сама очередь не копируется.
+     * @param queue очередь
+     * @param codec кодек элементов
+     * @param file файл снимка; существующий заменяется целиком
+     * @throws IOException при ошибке записи
+     */
+    public static <T> void write(MyPriorityQueue<T> queue, ElementCodec<T> codec, Path file) throws IOException {
+        PriorityQueueSnapshot<T> snapshot = queue.snapshot();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C checksum = new CRC32C();
+
+        try (RunWriter<T> writer = new RunWriter<>(temporary, codec, HEADER_BYTES, checksum)) {
+            for (T element : snapshot) { // Порядок массива кучи
+                writer.write(element);
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(queue.arity())
+                .putInt(snapshot.size())
+                .putLong(checksum.getValue())
+                .putInt(queue.isIndexed() ? FLAG_INDEXED : 0)
+                .putInt(queue.maxSize())
+                .flip();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Восстановление очереди без перестройки кучи.
+     * @param file файл снимка
+     * @param codec кодек элементов
+     * @param comparator компаратор, с которым очередь сохранялась ({@code null} — естественный порядок)
+     * @return восстановленная очередь с исходными арностью и режимом
+     * @throws IOException если файл повреждён, обрезан или не является снимком
+     */
+    public static <T> MyPriorityQueue<T> read(Path file,
+                                              ElementCodec<T> codec,
+                                              Comparator<? super T> comparator) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long fileSize;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            fileSize = channel.size();
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) { break; } // Заголовок версии 1 короче
+            }
+        }
+        header.flip();
+        if (header.remaining() < V1_HEADER_BYTES) throw new IOException("Truncated checkpoint header: " + file);
+
+        if (header.getInt() != MAGIC) throw new IOException("Not a priority queue checkpoint: " + file);
+        int version = header.getInt();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ": " + file);
+        }
+        int arity = header.getInt();
+        int count = header.getInt();
+        long expectedChecksum = header.getLong();
+        int headerBytes = (version == 1) ? V1_HEADER_BYTES : HEADER_BYTES;
+        if (header.limit() < headerBytes) throw new IOException("Truncated checkpoint header: " + file);
+        int flags = (version == 1) ? 0 : header.getInt();
+        int maxSize = (version == 1) ? 0 : header.getInt();
+        if (arity < 2 || count < 0 || (flags & ~FLAG_INDEXED) != 0 || maxSize < 0) {
+            throw new IOException("Corrupted checkpoint header: " + file);
+        }
+        // Каждая запись — хотя бы префикс длины: больший count — порча, и память под него не выделяем
+        if (count > (fileSize - headerBytes) / Integer.BYTES) {
+            throw new IOException("Checkpoint header claims " + count + " elements, file is too short: " + file);
+        }
+
+        // Записи читаются прямо в сегменты очереди, без промежуточного массива на весь снимок
+        CRC32C checksum = new CRC32C();
+        SegmentedStore<T> heap = new SegmentedStore<>(Math.max(count, 1));
+        try (MappedRunReader<T> reader = new MappedRunReader<>(file, codec, headerBytes, checksum)) {
+            for (int i = 0; i < count; ++i) {
+                if (reader.isExhausted()) throw new IOException("Truncated checkpoint: " + file);
+                heap.set(i, reader.head());
+                reader.advance();
+            }
+            if (!reader.isExhausted()) throw new IOException("Trailing data in checkpoint: " + file);
+        }
+        if (checksum.getValue() != expectedChecksum) {
+            throw new IOException("Checkpoint checksum mismatch: " + file);
+        }
+
+        try {
+            return MyPriorityQueue.fromHeapLayout(heap, count, comparator, arity, (flags & FLAG_INDEXED) != 0, maxSize);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupted checkpoint: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package tasks;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Неизменяемый снимок {@link MyPriorityQueue}, полученный через {@link MyPriorityQueue#snapshot()}.
+ * <br>Держит каталог сегментов очереди на момент снимка: очередь копирует сегмент
+ * перед первой записью в него, а этот каталог и его сегменты больше никто не меняет. Все поля финальные,
+ * так что снимок можно безопасно передать другим потокам: чтение, обход, потоки
+ * и выбор первых N не блокируют писателя и не видят его последующих изменений.</br>
+ * @param <T> тип элементов
+ */
+public final class PriorityQueueSnapshot<T> implements Iterable<T> {
+    private final SegmentedStore<T> heap;           // Сегменты кучи, в которые больше никто не пишет
+    private final int size;
+    private final Comparator<? super T> comparator;
+    private final int arity;
+
+    PriorityQueueSnapshot(SegmentedStore<T> heap, int size, Comparator<? super T> comparator, int arity) {
+        this.heap = heap;
+        this.size = size;
+        this.comparator = comparator;
+        this.arity = arity;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * @return наименьший элемент на момент снимка или {@code null}, если очередь была пуста
+     */
+    public T peek() { return (size == 0) ? null : get(0); }
+
+    /**
+     * Обход в порядке массива кучи (не отсортированном).
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return elements().iterator();
+    }
+
+    /**
+     * @return поток элементов в порядке массива кучи
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return elements().spliterator();
+    }
+
+    /**
+     * @return ленивый итератор в порядке приоритета
+     * @see MyPriorityQueue#orderedIterator()
+     */
+    public Iterator<T> orderedIterator() {
+        return new OrderedHeapIterator<>(this::get, size, comparator, arity);
+    }
+
+    /**
+     * @return поток в порядке приоритета
+     */
+    public Stream<T> orderedStream() {
+        return StreamSupport.stream(
+                Spliterators.spliterator(orderedIterator(), size,
+                        Spliterator.ORDERED | Spliterator.IMMUTABLE),
+                false);
+    }
+
+    /**
+     * Первые {@code n} элементов в порядке приоритета за O(n log n), без копии всего массива.
+     * @param n сколько элементов взять
+     * @return до {@code n} наименьших элементов
+     */
+    public List<T> topN(int n) {
+        if (n < 0) throw new IllegalArgumentException("Count must not be negative.");
+
+        List<T> result = new ArrayList<>(Math.min(n, size));
+        Iterator<T> ordered = orderedIterator();
+        while (result.size() < n && ordered.hasNext()) {
+            result.add(ordered.next());
+        }
+        return result;
+    }
+
+    /**
+     * @return копия элементов в порядке массива кучи
+     */
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        heap.copyTo(result, size);
+        return result;
+    }
+
+    private T get(int index) { return heap.get(index); }
+
+    /**
+     * Элементы в порядке массива кучи как список только для чтения, без копии.
+     */
+    private List<T> elements() {
+        return new AbstractList<T>() {
+            @Override public T get(int index) {
+                Objects.checkIndex(index, size);
+                return PriorityQueueSnapshot.this.get(index);
+            }
+
+            @Override public int size() { return size; }
+        };
+    }
+}
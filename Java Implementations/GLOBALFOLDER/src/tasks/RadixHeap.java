@@ -0,0 +1,196 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * <b>Радиксная куча</b> — монотонная очередь с приоритетом для целочисленных ключей.
+ * <br>Подходит там, где извлечённые ключи не убывают, а новые не меньше последнего
+ * извлечённого, — например, расстояния в алгоритме Дейкстры. Элементы раскладываются
+ * по 65 корзинам по старшему биту, в котором их ключ отличается от последнего
+ * извлечённого; при извлечении перераспределяется только первая непустая корзина,
+ * и каждый элемент опускается в корзину с меньшим номером. Отсюда амортизированные
+ * O(log C) на элемент (C — разброс ключей) и ни одного вызова компаратора.</br>
+ * <br>Методы {@code add}/{@code peek}/{@code poll} повторяют {@link MinHeap}:
+ * ключ элемента берётся функцией из конструктора. Ключ не должен меняться,
+ * пока элемент лежит в куче.</br>
+ * @param <T> тип элементов
+ */
+public class RadixHeap<T> {
+    private static final int BUCKETS = Long.SIZE + 1;
+    private static final int DEFAULT_BUCKET_CAPACITY = 4;
+
+    private final ToLongFunction<? super T> keyOf;
+
+    // Корзины: ключи хранятся со сдвигом на Long.MIN_VALUE,
+    // чтобы беззнаковый порядок совпадал со знаковым и отрицательные ключи тоже работали.
+    private final long[][] keys = new long[BUCKETS][];
+    private final Object[][] values = new Object[BUCKETS][];
+    private final int[] counts = new int[BUCKETS];
+
+    private long last = 0; // Последний извлечённый ключ (сдвинутый); 0 — любой ключ допустим
+    private int size;
+
+    // Где лежит минимум, найденный peek(): корзины перераспределяет только poll(),
+    // поэтому подсматривание не сдвигает last и не сужает допустимые для add ключи.
+    private int minimumBucket = -1; // -1 — минимум не найден
+    private int minimumIndex;
+
+    /**
+     * @param keyOf функция, дающая ключ элемента
+     */
+    public RadixHeap(ToLongFunction<? super T> keyOf) {
+        this.keyOf = Objects.requireNonNull(keyOf);
+        for (int i = 0; i < BUCKETS; ++i) {
+            keys[i] = new long[DEFAULT_BUCKET_CAPACITY];
+            values[i] = new Object[DEFAULT_BUCKET_CAPACITY];
+        }
+    }
+
+    /**
+     * Добавление элемента.
+     * @param argument элемент
+     * @throws IllegalArgumentException если ключ меньше последнего извлечённого
+     */
+    public void add(T argument) {
+        long key = keyOf.applyAsLong(argument) ^ Long.MIN_VALUE;
+        if (Long.compareUnsigned(key, last) < 0) {
+            throw new IllegalArgumentException("Key " + (key ^ Long.MIN_VALUE)
+                    + " is less than the last extracted key " + (last ^ Long.MIN_VALUE) + ".");
+        }
+        if (minimumBucket >= 0 && Long.compareUnsigned(key, keys[minimumBucket][minimumIndex]) < 0) {
+            minimumBucket = -1; // Новый элемент меньше найденного минимума
+        }
+        push(bucketOf(key), key, argument);
+        size++;
+    }
+
+    /**
+     * @return элемент с наименьшим ключом или {@code null}, если куча пуста
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        if (size == 0) { return null; }
+
+        locateMinimum();
+        return (T) values[minimumBucket][minimumIndex];
+    }
+
+    /**
+     * @return наименьший ключ
+     * @throws IllegalStateException если куча пуста
+     */
+    public long peekKey() {
+        if (size == 0) { throw new IllegalStateException("Heap is empty!"); }
+
+        locateMinimum();
+        return keys[minimumBucket][minimumIndex] ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Извлечение элемента с наименьшим ключом. Среди равных ключей порядок не определён.
+     * @return элемент
+     * @throws IllegalStateException если куча пуста
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if (size == 0) { throw new IllegalStateException("Heap is empty!"); }
+
+        pullMinimum();
+        int index = --counts[0];
+        T minimum = (T) values[0][index];
+        values[0][index] = null;
+        size--;
+        minimumBucket = -1;
+        return minimum;
+    }
+
+    /**
+     * @return последний извлечённый ключ — нижняя граница для новых ключей
+     */
+    public long lastKey() { return last ^ Long.MIN_VALUE; }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Очистка. Граница монотонности сохраняется.
+     */
+    public void clear() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            Arrays.fill(values[i], 0, counts[i], null);
+            counts[i] = 0;
+        }
+        size = 0;
+        minimumBucket = -1;
+    }
+
+    /**
+     * Поиск минимума без перестановок: в корзине 0 он любой, иначе — наименьший
+     * в первой непустой корзине. Результат запоминается до следующего изменения.
+     */
+    private void locateMinimum() {
+        if (minimumBucket >= 0) { return; }
+
+        if (counts[0] > 0) {
+            minimumBucket = 0;
+            minimumIndex = counts[0] - 1;
+            return;
+        }
+
+        int bucket = 1;
+        while (counts[bucket] == 0) { ++bucket; }
+
+        long[] bucketKeys = keys[bucket];
+        int index = 0;
+        for (int i = 1; i < counts[bucket]; ++i) {
+            if (Long.compareUnsigned(bucketKeys[i], bucketKeys[index]) < 0) { index = i; }
+        }
+        minimumBucket = bucket;
+        minimumIndex = index;
+    }
+
+    /**
+     * Если корзина 0 пуста — берём первую непустую, делаем её минимум новым {@code last}
+     * и раскладываем её элементы по корзинам с меньшими номерами.
+     * <br>Вызывается только при извлечении: {@code last} — ключ, который сейчас будет извлечён.
+     * После вызова корзина 0 непуста и все её ключи равны {@code last}.</br>
+     */
+    private void pullMinimum() {
+        if (counts[0] > 0) { return; }
+
+        locateMinimum(); // Минимум мог уже найти peek()
+        int bucket = minimumBucket;
+        long[] bucketKeys = keys[bucket];
+        Object[] bucketValues = values[bucket];
+        int count = counts[bucket];
+        last = bucketKeys[minimumIndex];
+
+        counts[bucket] = 0;
+        for (int i = 0; i < count; ++i) {
+            push(bucketOf(bucketKeys[i]), bucketKeys[i], bucketValues[i]);
+            bucketValues[i] = null;
+        }
+    }
+
+    /**
+     * Номер корзины: 0 — ключ равен {@code last}, иначе 1 + номер старшего отличающегося бита.
+     */
+    private int bucketOf(long key) {
+        return Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void push(int bucket, long key, Object value) {
+        int count = counts[bucket];
+        if (count == keys[bucket].length) {
+            int newCapacity = count + (count >> 1);
+            keys[bucket] = Arrays.copyOf(keys[bucket], newCapacity);
+            values[bucket] = Arrays.copyOf(values[bucket], newCapacity);
+        }
+        keys[bucket][count] = key;
+        values[bucket][count] = value;
+        counts[bucket] = count + 1;
+    }
+}
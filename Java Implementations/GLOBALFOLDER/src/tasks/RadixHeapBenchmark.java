@@ -0,0 +1,155 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Алгоритм Дейкстры на большом случайном графе с тремя очередями:
+ * {@link RadixHeap}, {@link MyPriorityQueue} и {@link MinHeap}.
+ * <br>Все три работают с «ленивым удалением»: устаревшие записи просто пропускаются
+ * при извлечении. Для сравнения тот же граф решает {@link ShortestPaths} — {@link MinHeap}
+ * с дескрипторами и {@code decreaseKey}. Расстояния должны совпасть — иначе программа
+ * завершается с кодом 1.</br>
+ * <br>Запуск: {@code java tasks.RadixHeapBenchmark [вершин] [степень] [макс. вес]}</br>
+ */
+public class RadixHeapBenchmark {
+    private static final long SEED = 7;
+
+    /**
+     * Запись очереди: вершина и предварительное расстояние до неё.
+     */
+    private static final class Visit implements Comparable<Visit> {
+        final int vertex;
+        final long distance;
+
+        Visit(int vertex, long distance) {
+            this.vertex = vertex;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Visit other) { return Long.compare(distance, other.distance); }
+    }
+
+    /**
+     * Граф в виде смежных массивов: рёбра вершины v — индексы {@code offsets[v]..offsets[v+1]}.
+     */
+    private static final class Graph {
+        final int[] offsets;
+        final int[] targets;
+        final int[] weights;
+
+        Graph(int vertices, int degree, int maxWeight, Random random) {
+            offsets = new int[vertices + 1];
+            targets = new int[vertices * degree];
+            weights = new int[vertices * degree];
+            for (int v = 0; v < vertices; ++v) {
+                offsets[v + 1] = offsets[v] + degree;
+                for (int e = offsets[v]; e < offsets[v + 1]; ++e) {
+                    targets[e] = random.nextInt(vertices);
+                    weights[e] = 1 + random.nextInt(maxWeight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Общий интерфейс трёх очередей для одного и того же цикла Дейкстры.
+     */
+    private interface Frontier {
+        void add(Visit visit);
+        Visit poll();
+        boolean isEmpty();
+    }
+
+    public static void main(String... args) {
+        int vertices = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int degree = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+        int maxWeight = (args.length > 2) ? Integer.parseInt(args[2]) : 1_000;
+
+        Graph graph = new Graph(vertices, degree, maxWeight, new Random(SEED));
+        CompactGraph.Builder builder = new CompactGraph.Builder(vertices);
+        for (int v = 0; v < vertices; ++v) {
+            for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; ++e) {
+                builder.addEdge(v, graph.targets[e], graph.weights[e]);
+            }
+        }
+        ShortestPaths engine = new ShortestPaths(builder.build());
+
+        for (int round = 0; round < 3; ++round) { // Первые прогоны — прогрев JIT
+            long[] radix = run("RadixHeap", graph, () -> {
+                RadixHeap<Visit> heap = new RadixHeap<>(visit -> visit.distance);
+                return new Frontier() {
+                    @Override public void add(Visit visit) { heap.add(visit); }
+                    @Override public Visit poll() { return heap.poll(); }
+                    @Override public boolean isEmpty() { return heap.isEmpty(); }
+                };
+            });
+            long[] queue = run("MyPriorityQueue", graph, () -> {
+                MyPriorityQueue<Visit> heap = new MyPriorityQueue<>(1024, Comparator.naturalOrder());
+                return new Frontier() {
+                    @Override public void add(Visit visit) { heap.add(visit); }
+                    @Override public Visit poll() { return heap.poll(); }
+                    @Override public boolean isEmpty() { return heap.isEmpty(); }
+                };
+            });
+            long[] minHeap = run("MinHeap", graph, () -> {
+                MinHeap<Visit> heap = new MinHeap<>(Visit[]::new);
+                return new Frontier() {
+                    @Override public void add(Visit visit) { heap.add(visit); }
+                    @Override public Visit poll() { return heap.poll(); }
+                    @Override public boolean isEmpty() { return heap.isEmpty(); }
+                };
+            });
+
+            long begin = System.nanoTime();
+            ShortestPaths.Result result = engine.dijkstra(0);
+            long elapsed = System.nanoTime() - begin;
+            System.out.printf(Locale.ROOT, "%-16s %,d vertices, %,d edges: %.1f ms, decrease-key%n",
+                    "ShortestPaths", vertices, graph.targets.length, elapsed / 1e6);
+            boolean same = true;
+            for (int v = 0; v < vertices; ++v) {
+                same &= result.distance(v) == radix[v];
+            }
+
+            if (!same || !Arrays.equals(radix, queue) || !Arrays.equals(radix, minHeap)) {
+                System.err.println("Distances differ between heaps.");
+                System.exit(1);
+            }
+        }
+    }
+
+    private static long[] run(String name, Graph graph, Supplier<Frontier> factory) {
+        int vertices = graph.offsets.length - 1;
+        long[] distances = new long[vertices];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        Frontier frontier = factory.get();
+        long operations = 0;
+
+        long begin = System.nanoTime();
+        distances[0] = 0;
+        frontier.add(new Visit(0, 0));
+        while (!frontier.isEmpty()) {
+            Visit visit = frontier.poll();
+            operations++;
+            if (visit.distance > distances[visit.vertex]) { continue; } // Устаревшая запись
+
+            for (int e = graph.offsets[visit.vertex]; e < graph.offsets[visit.vertex + 1]; ++e) {
+                int target = graph.targets[e];
+                long candidate = visit.distance + graph.weights[e];
+                if (candidate < distances[target]) {
+                    distances[target] = candidate;
+                    frontier.add(new Visit(target, candidate));
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        System.out.printf(Locale.ROOT, "%-16s %,d vertices, %,d edges: %.1f ms, %,d polls%n",
+                name, vertices, graph.targets.length, elapsed / 1e6, operations);
+        return distances;
+    }
+}
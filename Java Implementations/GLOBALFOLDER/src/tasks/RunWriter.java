@@ -0,0 +1,87 @@
+package tasks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Checksum;
+
+/**
+ * Буферизованная запись последовательности элементов в файл-«прогон».
+ * <br>Формат записи: {@code [int длина][байты элемента]}, числа — big-endian.
+ * Записи могут начинаться не с начала файла (место под заголовок) и сопровождаться контрольной суммой.</br>
+ * @param <T> тип элементов
+ * @see MappedRunReader
+ */
+final class RunWriter<T> implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ElementCodec<T> codec;
+    private final Checksum checksum; // {@code null} — без контрольной суммы
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private long count;
+
+    RunWriter(Path path, ElementCodec<T> codec) throws IOException {
+        this(path, codec, 0, null);
+    }
+
+    /**
+     * @param offset с какого байта файла начинать записи
+     * @param checksum сумма, которую обновляют все записанные байты, или {@code null}
+     */
+    RunWriter(Path path, ElementCodec<T> codec, long offset, Checksum checksum) throws IOException {
+        this.codec = codec;
+        this.checksum = checksum;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(offset);
+    }
+
+    void write(T element) throws IOException {
+        int length = codec.encodedSize(element);
+        int needed = Integer.BYTES + length;
+        if (buffer.remaining() < needed) {
+            flush();
+            if (buffer.capacity() < needed) {
+                buffer = ByteBuffer.allocateDirect(needed); // Элемент крупнее буфера
+            }
+        }
+
+        buffer.putInt(length);
+        int start = buffer.position();
+        codec.encode(element, buffer);
+        if (buffer.position() - start != length) {
+            throw new IllegalStateException("Codec wrote " + (buffer.position() - start)
+                    + " bytes, but declared " + length + ".");
+        }
+        count++;
+    }
+
+    /**
+     * @return число записанных элементов
+     */
+    long count() { return count; }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        if (checksum != null) { checksum.update(buffer.duplicate()); }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
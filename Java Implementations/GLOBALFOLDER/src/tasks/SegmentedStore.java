@@ -0,0 +1,219 @@
+package tasks;
+
+import java.util.Arrays;
+
+/**
+ * Сегментированное хранилище ссылок с {@code long}-индексом — общий носитель
+ * {@link MyPriorityQueue} и {@link BigPriorityQueue}.
+ * <br>Индекс {@code i} — ячейка {@code (i & SEGMENT_MASK)} сегмента {@code (i >>> SEGMENT_BITS)}.
+ * Пока хранилище не больше одного сегмента, первый сегмент растёт как обычный массив
+ * (+2 до 64 элементов, дальше в полтора раза); потом добавляются полные сегменты
+ * по {@value #SEGMENT_SIZE} элементов, старые при этом не копируются.</br>
+ * <br>Копирование при записи для снимков: {@link #share()} отдаёт снимку текущий каталог,
+ * а перед первой записью в общий сегмент копируется только он (и один раз — каталог).
+ * Пока снимков нет, запись проверяет единственный флаг {@code shared}.</br>
+ * @param <T> тип элементов
+ */
+final class SegmentedStore<T> {
+    static final int SEGMENT_BITS = 10;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_BITS; // Элементов в полном сегменте
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private Object[][] segments; // Каталог; используются первые segmentCount ячеек
+    private int segmentCount;
+    private long capacity;       // Суммарная длина выделенных сегментов
+
+    /*
+        Сегмент k свой, только если segmentEpoch[k] == epoch; share() просто увеличивает epoch.
+    */
+    private boolean shared;          // Есть сегменты или каталог, общие со снимком
+    private boolean directoryShared; // Каталог принадлежит снимку
+    private int[] segmentEpoch;      // Эпоха, в которой сегмент стал своим
+    private int epoch;               // Текущая эпоха, растёт с каждым снимком
+    private int sharedSegments;      // Сколько сегментов ещё общие
+
+    /**
+     * @param initialCapacity начальная ёмкость, не меньше 1
+     */
+    SegmentedStore(long initialCapacity) {
+        allocate(initialCapacity);
+    }
+
+    private SegmentedStore(Object[][] segments, int segmentCount, long capacity) {
+        this.segments = segments;
+        this.segmentCount = segmentCount;
+        this.capacity = capacity;
+        this.segmentEpoch = new int[segments.length];
+    }
+
+    /**
+     * Копия первых {@code length} элементов массива в новое хранилище.
+     * @param source элементы
+     * @param length сколько первых элементов взять
+     * @param minCapacity наименьшая ёмкость результата
+     */
+    static <T> SegmentedStore<T> of(T[] source, int length, int minCapacity) {
+        SegmentedStore<T> store = new SegmentedStore<>(Math.max(Math.max(length, minCapacity), 1));
+        for (int from = 0; from < length; from += SEGMENT_SIZE) {
+            System.arraycopy(source, from, store.segments[from >>> SEGMENT_BITS], 0,
+                    Math.min(SEGMENT_SIZE, length - from));
+        }
+        return store;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(long index) {
+        return (T) segments[(int) (index >>> SEGMENT_BITS)][(int) index & SEGMENT_MASK];
+    }
+
+    void set(long index, T element) {
+        int k = (int) (index >>> SEGMENT_BITS);
+        if (shared && segmentEpoch[k] != epoch) { copySegment(k); }
+        segments[k][(int) index & SEGMENT_MASK] = element;
+    }
+
+    long capacity() { return capacity; }
+
+    int segmentCount() { return segmentCount; }
+
+    /**
+     * Рост до {@code required}: первый сегмент растёт геометрически до полного,
+     * дальше добавляется ровно столько полных сегментов, сколько нужно.
+     * @param required требуемая ёмкость
+     */
+    void ensureCapacity(long required) {
+        if (required <= capacity) { return; }
+
+        ownDirectory();
+        if (capacity < SEGMENT_SIZE) {
+            long grown = Math.max(required, (capacity < 64) ? (capacity + 2) : (capacity + (capacity >> 1)));
+            segments[0] = Arrays.copyOf(segments[0], (int) Math.min(grown, SEGMENT_SIZE));
+            if (segmentEpoch[0] != epoch) { ownedAgain(0); } // Копия уже своя
+            capacity = segments[0].length;
+        }
+        if (required > capacity) {
+            long count = (required + SEGMENT_MASK) >>> SEGMENT_BITS;
+            if (count > Integer.MAX_VALUE - 8) throw new OutOfMemoryError("Required capacity is too large: " + required);
+            if (count > segments.length) {
+                int length = (int) Math.min(Math.max(count, 2L * segments.length), Integer.MAX_VALUE - 8);
+                segments = Arrays.copyOf(segments, length);
+                segmentEpoch = Arrays.copyOf(segmentEpoch, length);
+            }
+            for (int k = segmentCount; k < count; ++k) {
+                segments[k] = new Object[SEGMENT_SIZE];
+                segmentEpoch[k] = epoch; // Новые сегменты сразу свои
+            }
+            segmentCount = (int) count;
+            capacity = count << SEGMENT_BITS;
+        }
+    }
+
+    /**
+     * Освобождение пустых хвостовых сегментов: за первыми {@code size} элементами
+     * остаётся один запасной, чтобы очередь на границе сегмента не выделяла и не отдавала
+     * память на каждой операции.
+     * @param size сколько элементов занято
+     */
+    void releaseSpare(long size) {
+        int needed = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+        if (segmentCount <= needed + 1) { return; }
+
+        ownDirectory();
+        while (segmentCount > needed + 1) {
+            if (segmentEpoch[segmentCount - 1] != epoch) { ownedAgain(segmentCount - 1); } // Снимку он остаётся
+            segments[--segmentCount] = null;
+        }
+        capacity = (long) segmentCount << SEGMENT_BITS;
+        if (segmentCount < segments.length / 4 && segments.length > 4) {
+            segments = Arrays.copyOf(segments, segments.length / 2);
+            segmentEpoch = Arrays.copyOf(segmentEpoch, segments.length);
+        }
+    }
+
+    /**
+     * Очистка первых {@code size} ячеек; если хранилище разделено со снимком —
+     * новое хранилище той же ёмкости, старые сегменты остаются снимку.
+     */
+    void clear(long size) {
+        if (shared) {
+            allocate(capacity);
+            return;
+        }
+        for (long from = 0; from < size; from += SEGMENT_SIZE) {
+            Arrays.fill(segments[(int) (from >>> SEGMENT_BITS)], 0, (int) Math.min(SEGMENT_SIZE, size - from), null);
+        }
+    }
+
+    /**
+     * Неизменяемый вид текущего содержимого за O(1): каталог и сегменты становятся общими,
+     * а это хранилище копирует их перед первой записью.
+     * @return хранилище для чтения, в которое больше никто не пишет
+     */
+    SegmentedStore<T> share() {
+        if (++epoch == 0) { Arrays.fill(segmentEpoch, -1); } // Переполнение эпохи: все сегменты чужие
+        shared = directoryShared = true;
+        sharedSegments = segmentCount;
+        return new SegmentedStore<>(segments, segmentCount, capacity);
+    }
+
+    /**
+     * Глубокая копия: сегменты копируются, снимки не разделяются.
+     */
+    SegmentedStore<T> copy() {
+        Object[][] copied = Arrays.copyOf(segments, segments.length);
+        for (int k = 0; k < segmentCount; ++k) { copied[k] = copied[k].clone(); }
+        return new SegmentedStore<>(copied, segmentCount, capacity);
+    }
+
+    /**
+     * Копия первых {@code length} элементов в массив начиная с нулевой ячейки.
+     */
+    void copyTo(Object[] target, int length) {
+        for (int from = 0; from < length; from += SEGMENT_SIZE) {
+            System.arraycopy(segments[from >>> SEGMENT_BITS], 0, target, from, Math.min(SEGMENT_SIZE, length - from));
+        }
+    }
+
+    private void allocate(long initialCapacity) {
+        int count = (int) Math.max(1, (initialCapacity + SEGMENT_MASK) >>> SEGMENT_BITS);
+        segments = new Object[Math.max(count, 4)][];
+        if (count == 1) {
+            segments[0] = new Object[(int) Math.max(initialCapacity, 1)];
+        } else {
+            for (int k = 0; k < count; ++k) { segments[k] = new Object[SEGMENT_SIZE]; }
+        }
+        segmentCount = count;
+        capacity = (count == 1) ? segments[0].length : (long) count << SEGMENT_BITS;
+        segmentEpoch = new int[segments.length];
+        epoch = 0;
+        shared = directoryShared = false;
+        sharedSegments = 0;
+    }
+
+    /**
+     * Копия сегмента, разделённого со снимком, перед первой записью в него.
+     * <br>Стоит O({@value #SEGMENT_SIZE}) один раз на сегмент после каждого снимка:
+     * операция кучи копирует только сегменты на своём пути, а не всё хранилище.</br>
+     */
+    private void copySegment(int k) {
+        ownDirectory();
+        segments[k] = segments[k].clone();
+        ownedAgain(k);
+    }
+
+    private void ownedAgain(int k) {
+        segmentEpoch[k] = epoch;
+        if (--sharedSegments == 0 && !directoryShared) { shared = false; }
+    }
+
+    /**
+     * Копия каталога (ссылок на сегменты), если он ещё принадлежит снимку.
+     */
+    private void ownDirectory() {
+        if (directoryShared) {
+            segments = segments.clone();
+            directoryShared = false;
+            if (sharedSegments == 0) { shared = false; }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package tasks;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Кратчайшие пути на {@link CompactGraph}: алгоритм Дейкстры и A*.
+ * <br>Очередь — {@link MinHeap} с дескрипторами: у каждой вершины в очереди ровно одна запись,
+ * а улучшение расстояния — это {@code decreaseKey} по дескриптору, а не новая запись.
+ * В отличие от «ленивого удаления», куча не раздувается устаревшими записями
+ * и никогда не больше числа вершин.</br>
+ * <br>Экземпляр переиспользует свои массивы между запросами и однопоточен.</br>
+ */
+public class ShortestPaths {
+    private static final int NO_PARENT = -1;
+
+    /**
+     * Запись очереди: вершина, пройденное расстояние и приоритет (расстояние + эвристика).
+     */
+    private static final class Label implements Comparable<Label> {
+        final int vertex;
+        final long distance;
+        final long priority;
+
+        Label(int vertex, long distance, long priority) {
+            this.vertex = vertex;
+            this.distance = distance;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Label other) { return Long.compare(priority, other.priority); }
+    }
+
+    /**
+     * Результат поиска: расстояния и дерево предков.
+     */
+    public static final class Result {
+        private final long[] distances;
+        private final int[] parents;
+
+        private Result(long[] distances, int[] parents) {
+            this.distances = distances;
+            this.parents = parents;
+        }
+
+        /**
+         * @return длина кратчайшего пути или {@link Long#MAX_VALUE}, если вершина недостижима
+         */
+        public long distance(int vertex) { return distances[vertex]; }
+
+        public boolean isReachable(int vertex) { return distances[vertex] != Long.MAX_VALUE; }
+
+        /**
+         * @return вершины пути от источника до {@code target} включительно; пустой массив, если пути нет
+         */
+        public int[] path(int target) {
+            if (!isReachable(target)) { return new int[0]; }
+
+            int length = 0;
+            for (int v = target; v != NO_PARENT; v = parents[v]) { length++; }
+            int[] path = new int[length];
+            for (int v = target; v != NO_PARENT; v = parents[v]) { path[--length] = v; }
+            return path;
+        }
+    }
+
+    private final CompactGraph graph;
+    private final MinHeap.Handle<Label>[] handles; // Дескриптор вершины, пока она в очереди
+
+    @SuppressWarnings("unchecked")
+    public ShortestPaths(CompactGraph graph) {
+        this.graph = Objects.requireNonNull(graph);
+        this.handles = (MinHeap.Handle<Label>[]) new MinHeap.Handle<?>[graph.vertexCount()];
+    }
+
+    /**
+     * Расстояния от источника до всех вершин.
+     * @param source источник
+     * @return расстояния и дерево кратчайших путей
+     */
+    public Result dijkstra(int source) {
+        return search(source, NO_PARENT, vertex -> 0);
+    }
+
+    /**
+     * Поиск A* до одной цели. Останавливается, как только цель извлечена из очереди.
+     * <br>Эвристика не должна переоценивать расстояние до цели; если она к тому же
+     * согласована, каждая вершина извлекается не больше одного раза.
+     * Расстояния до вершин, кроме цели, — лишь верхние оценки.</br>
+     * @param source источник
+     * @param target цель
+     * @param heuristic оценка расстояния от вершины до цели
+     * @return результат; путь — {@code path(target)}
+     */
+    public Result aStar(int source, int target, IntToLongFunction heuristic) {
+        Objects.checkIndex(target, graph.vertexCount());
+        return search(source, target, Objects.requireNonNull(heuristic));
+    }
+
+    private Result search(int source, int target, IntToLongFunction heuristic) {
+        Objects.checkIndex(source, graph.vertexCount());
+
+        long[] distances = new long[graph.vertexCount()];
+        int[] parents = new int[graph.vertexCount()];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        Arrays.fill(parents, NO_PARENT);
+        Arrays.fill(handles, null);
+
+        MinHeap<Label> open = new MinHeap<>(Label[]::new);
+        distances[source] = 0;
+        handles[source] = open.addWithHandle(new Label(source, 0, heuristic.applyAsLong(source)));
+
+        while (!open.isEmpty()) {
+            Label current = open.poll();
+            int vertex = current.vertex;
+            handles[vertex] = null;
+            if (vertex == target) { break; }
+
+            for (int e = graph.firstEdge(vertex); e < graph.endEdge(vertex); ++e) {
+                int next = graph.target(e);
+                long candidate = current.distance + graph.weight(e);
+                if (candidate >= distances[next]) { continue; }
+
+                distances[next] = candidate;
+                parents[next] = vertex;
+                Label label = new Label(next, candidate, candidate + heuristic.applyAsLong(next));
+                if (handles[next] != null) {
+                    open.decreaseKey(handles[next], label); // Уже в очереди — только уменьшаем ключ
+                } else {
+                    handles[next] = open.addWithHandle(label);
+                }
+            }
+        }
+        Arrays.fill(handles, null); // Не держим метки до следующего запроса
+        return new Result(distances, parents);
+    }
+}
@@ -0,0 +1,370 @@
+package tasks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Очередь с приоритетом, которая не упирается в объём памяти: горячая часть живёт
+ * в {@link MyPriorityQueue}, а излишек сбрасывается на диск отсортированными прогонами.
+ * <br>Когда горячая куча достигает предела, её содержимое сортируется:
+ * меньшая половина остаётся в памяти, большая уходит в новый файл-прогон.
+ * Голова каждого прогона — его минимум, поэтому глобальный минимум — это меньшее
+ * из верхушки горячей кучи и наименьшей головы среди прогонов (их держит отдельная куча).</br>
+ * <br>Прогоны читаются лениво через отображение в память. Чтобы число открытых файлов
+ * было ограничено, прогоны сливаются по ярусам: свежий сброс — ярус 0, а как только
+ * на одном ярусе набирается {@value #TIER_FAN_IN} прогонов, они сливаются в один прогон
+ * следующего яруса. Сливаются только прогоны близкого размера, поэтому каждый элемент
+ * переписывается O(log n) раз, а не при каждом слиянии, — скорость плавно падает
+ * с ростом объёма вместо {@link OutOfMemoryError}.</br>
+ * <br>Элементы {@code null} не допускаются. Файлы удаляются в {@link #close()}.</br>
+ * @param <T> тип элементов
+ */
+public class SpillingPriorityQueue<T> implements AutoCloseable {
+    private static final int TIER_FAN_IN = 8; // Столько прогонов одного яруса сливаются в один
+    private static final int MAX_RUNS = 64;   // Страховка: больше прогонов — сливаем нижний ярус
+
+    private final MyPriorityQueue<T> hot;       // Горячая часть в памяти
+    private final MyPriorityQueue<Run<T>> runs; // Прогоны, упорядоченные по голове
+    private final int memoryLimit;                          // Предел элементов в памяти
+    private final Comparator<? super T> comparator;
+    private final ElementCodec<T> codec;
+
+    private final Path directory;       // Каталог для прогонов
+    private final boolean ownsDirectory; // Каталог создан нами — удаляем его в close()
+    private long size;
+    private long runCounter;             // Для уникальных имён файлов
+    private boolean closed;
+
+    /**
+     * Прогон и его ярус: прогон яруса {@code t} получен слиянием сбросов в числе до {@code TIER_FAN_IN^t}.
+     */
+    private static final class Run<T> {
+        final MappedRunReader<T> reader;
+        final int tier;
+
+        Run(MappedRunReader<T> reader, int tier) {
+            this.reader = reader;
+            this.tier = tier;
+        }
+
+        T head() { return reader.head(); }
+    }
+
+    /**
+     * Очередь с прогонами во временном каталоге.
+     * @param memoryLimit сколько элементов держать в памяти
+     * @param comparator компаратор, {@code null} — естественный порядок
+     * @param codec кодек для записи элементов на диск
+     * @throws IOException если не удалось создать временный каталог
+     */
+    public SpillingPriorityQueue(int memoryLimit,
+                                 Comparator<? super T> comparator,
+                                 ElementCodec<T> codec) throws IOException {
+        this(memoryLimit, comparator, codec, Files.createTempDirectory("spilling-pq"), true);
+    }
+
+    /**
+     * Очередь с прогонами в заданном каталоге (например, на локальном SSD).
+     * @param memoryLimit сколько элементов держать в памяти
+     * @param comparator компаратор, {@code null} — естественный порядок
+     * @param codec кодек для записи элементов на диск
+     * @param directory существующий каталог для прогонов
+     */
+    public SpillingPriorityQueue(int memoryLimit,
+                                 Comparator<? super T> comparator,
+                                 ElementCodec<T> codec,
+                                 Path directory) {
+        this(memoryLimit, comparator, codec, directory, false);
+    }
+
+    private SpillingPriorityQueue(int memoryLimit,
+                                  Comparator<? super T> comparator,
+                                  ElementCodec<T> codec,
+                                  Path directory,
+                                  boolean ownsDirectory) {
+        if (memoryLimit < 2) throw new IllegalArgumentException("Memory limit must be at least 2.");
+
+        this.memoryLimit = memoryLimit;
+        this.comparator = comparator;
+        this.codec = Objects.requireNonNull(codec);
+        this.directory = Objects.requireNonNull(directory);
+        this.ownsDirectory = ownsDirectory;
+        this.hot = new MyPriorityQueue<>(Math.min(memoryLimit, 1 << 16), comparator);
+        this.runs = newRunQueue();
+    }
+
+    /**
+     * Добавление элемента; при заполнении горячей кучи половина её уходит на диск.
+     * @param element элемент
+     * @return всегда {@code true}
+     * @throws UncheckedIOException при ошибке записи прогона
+     */
+    public boolean add(T element) {
+        Objects.requireNonNull(element);
+        checkOpen();
+
+        if (hot.size() >= memoryLimit) {
+            spill();
+        }
+        hot.add(element);
+        size++;
+        return true;
+    }
+
+    /**
+     * Аналог {@code add()} — очередь неограниченная.
+     */
+    public boolean offer(T element) { return add(element); }
+
+    /**
+     * @return наименьший элемент или {@code null}, если очередь пуста
+     */
+    public T peek() {
+        checkOpen();
+        T hotTop = hot.peek();
+        Run<T> run = runs.peek();
+        if (run == null) { return hotTop; }
+        if (hotTop == null) { return run.head(); }
+        return (compare(hotTop, run.head()) <= 0) ? hotTop : run.head();
+    }
+
+    /**
+     * Извлечение наименьшего элемента из памяти или из головы прогона.
+     * @return элемент или {@code null}, если очередь пуста
+     * @throws UncheckedIOException при ошибке чтения прогона
+     */
+    public T poll() {
+        checkOpen();
+        Run<T> run = runs.peek();
+        T hotTop = hot.peek();
+        if (run == null && hotTop == null) { return null; }
+
+        size--;
+        if (run == null || (hotTop != null && compare(hotTop, run.head()) <= 0)) {
+            return hot.poll();
+        }
+        T element = run.head();
+        advanceRun(run);
+        return element;
+    }
+
+    /**
+     * Аналог {@code poll()} с исключением для пустой очереди.
+     * @throws NoSuchElementException если очередь пуста
+     */
+    public T remove() {
+        T element = poll();
+        if (element == null) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return element;
+    }
+
+    public long size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * @return число элементов, находящихся в памяти
+     */
+    public int inMemorySize() { return hot.size(); }
+
+    /**
+     * @return число прогонов на диске
+     */
+    public int spilledRuns() { return runs.size(); }
+
+    /**
+     * Закрытие всех прогонов и удаление их файлов.
+     */
+    @Override
+    public void close() {
+        if (closed) { return; }
+        closed = true;
+
+        IOException failure = null;
+        for (Run<T> run : runs) {
+            try {
+                run.reader.close();
+                Files.deleteIfExists(run.reader.path());
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        runs.clear();
+        hot.clear();
+        size = 0;
+        try {
+            if (ownsDirectory) { Files.deleteIfExists(directory); }
+        } catch (IOException e) {
+            failure = e;
+        }
+        if (failure != null) { throw new UncheckedIOException(failure); }
+    }
+
+    /**
+     * Сброс большей половины горячей кучи в новый отсортированный прогон.
+     */
+    @SuppressWarnings("unchecked")
+    private void spill() {
+        T[] elements = (T[]) hot.toArray();
+        Arrays.sort(elements, this::compare);
+        int keep = elements.length / 2;
+
+        Path file = nextRunFile();
+        try {
+            try (RunWriter<T> writer = new RunWriter<>(file, codec)) {
+                for (int i = keep; i < elements.length; ++i) {
+                    writer.write(elements[i]);
+                }
+            }
+            runs.add(new Run<>(new MappedRunReader<>(file, codec), 0));
+        } catch (IOException | RuntimeException e) {
+            // Горячая куча ещё не тронута — убираем только недописанный файл
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw (e instanceof IOException io) ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+
+        // Отсортированный массив уже является кучей, так что перестройка линейная.
+        hot.clear();
+        hot.addAll(Arrays.asList(elements).subList(0, keep));
+
+        compactRuns();
+    }
+
+    /**
+     * Слияние по ярусам: пока на каком-то ярусе {@value #TIER_FAN_IN} прогонов и больше,
+     * они сливаются в один прогон следующего яруса (слияние может подняться каскадом).
+     * Если прогонов всё равно больше {@value #MAX_RUNS}, сливается нижний ярус целиком.
+     */
+    private void compactRuns() {
+        while (true) {
+            int[] perTier = new int[Integer.SIZE];
+            int lowestTier = Integer.MAX_VALUE;
+            for (Run<T> run : runs) {
+                perTier[run.tier]++;
+                lowestTier = Math.min(lowestTier, run.tier);
+            }
+
+            int tier = -1;
+            for (int t = 0; t < perTier.length && tier < 0; ++t) {
+                if (perTier[t] >= TIER_FAN_IN) { tier = t; }
+            }
+            if (tier < 0 && runs.size() > MAX_RUNS) { tier = lowestTier; }
+            if (tier < 0) { return; }
+
+            mergeTier(tier);
+        }
+    }
+
+    /**
+     * Потоковое k-путевое слияние всех прогонов яруса {@code tier} в один прогон яруса выше.
+     * <br>Сливаются отдельные курсоры, открытые с текущих голов, — сами прогоны не двигаются.
+     * Исходные прогоны закрываются и удаляются только когда новый прогон записан и открыт;
+     * при ошибке очередь остаётся как была, удаляется лишь недописанный файл.</br>
+     */
+    private void mergeTier(int tier) {
+        List<Run<T>> sources = new ArrayList<>();
+        for (Run<T> run : runs) {
+            if (run.tier == tier) { sources.add(run); }
+        }
+
+        Path file = nextRunFile();
+        MyPriorityQueue<Run<T>> cursors = newRunQueue();
+        Run<T> merged;
+        try {
+            try {
+                for (Run<T> source : sources) {
+                    MappedRunReader<T> cursor = new MappedRunReader<>(
+                            source.reader.path(), codec, source.reader.headOffset(), null);
+                    cursors.add(new Run<>(cursor, tier));
+                }
+                try (RunWriter<T> writer = new RunWriter<>(file, codec)) {
+                    while (!cursors.isEmpty()) {
+                        Run<T> cursor = cursors.peek();
+                        writer.write(cursor.head());
+                        cursor.reader.advance();
+                        if (cursor.reader.isExhausted()) {
+                            cursors.poll();
+                            cursor.reader.close();
+                        } else {
+                            cursors.replaceTop(cursor);
+                        }
+                    }
+                }
+                merged = new Run<>(new MappedRunReader<>(file, codec), Math.min(tier + 1, Integer.SIZE - 1));
+            } finally {
+                for (Run<T> cursor : cursors) { cursor.reader.close(); }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Исходные прогоны не тронуты — убираем только недописанный файл
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw (e instanceof IOException io) ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+
+        runs.removeIf(run -> run.tier == tier);
+        runs.add(merged);
+        IOException failure = null;
+        for (Run<T> source : sources) {
+            try {
+                source.reader.close();
+                Files.deleteIfExists(source.reader.path());
+            } catch (IOException e) {
+                failure = e; // Данные уже в новом прогоне, очередь согласована — сообщаем о старом файле
+            }
+        }
+        if (failure != null) { throw new UncheckedIOException(failure); }
+    }
+
+    /**
+     * Продвижение прогона, стоящего на верхушке: исчерпанный закрывается и удаляется.
+     */
+    private void advanceRun(Run<T> run) {
+        try {
+            run.reader.advance();
+            if (run.reader.isExhausted()) {
+                runs.poll();
+                run.reader.close();
+                Files.deleteIfExists(run.reader.path());
+            } else {
+                runs.replaceTop(run); // Голова сменилась — спускаем прогон на своё место
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MyPriorityQueue<Run<T>> newRunQueue() {
+        return new MyPriorityQueue<>(16, (a, b) -> compare(a.head(), b.head()));
+    }
+
+    private Path nextRunFile() {
+        return directory.resolve("run-" + (runCounter++) + ".bin");
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Queue is closed.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(T o1, T o2) {
+        if (comparator != null) return comparator.compare(o1, o2);
+        return ((Comparable<? super T>) o1).compareTo(o2);
+    }
+}
@@ -0,0 +1,112 @@
+package tasks;
+
+import java.util.Objects;
+
+/**
+ * Симметричная матрица N×N в упакованном виде: хранится только верхний треугольник
+ * с диагональю, по строкам подряд — {@code N·(N+1)/2} чисел вместо {@code N²}.
+ * <br>Строка {@code i} треугольника — элементы {@code (i, i..N-1)}, она начинается
+ * со смещения {@code i·N − i·(i−1)/2}. Элемент ниже диагонали читается из зеркального.</br>
+ */
+public final class SymmetricMatrix {
+    private static final long MAX_PACKED = Integer.MAX_VALUE - 8; // Предел длины массива
+
+    /**
+     * Наибольшая размерность, треугольник которой помещается в один массив.
+     */
+    static final int MAX_DIMENSION = (int) ((Math.sqrt(8.0 * MAX_PACKED + 1) - 1) / 2);
+
+    private final int n;
+    private final double[] packed;
+
+    /**
+     * Нулевая матрица.
+     * @param n размерность
+     */
+    public SymmetricMatrix(int n) {
+        if (n < 1) throw new IllegalArgumentException("Dimension must be positive.");
+        if (n > MAX_DIMENSION) throw new IllegalArgumentException("Dimension is too large: " + n);
+
+        this.n = n;
+        this.packed = new double[(int) ((long) n * (n + 1) / 2)];
+    }
+
+    public int size() { return n; }
+
+    public double get(int i, int j) {
+        return packed[index(i, j)];
+    }
+
+    /**
+     * Запись сразу в {@code (i, j)} и {@code (j, i)}.
+     */
+    public void set(int i, int j, double value) {
+        packed[index(i, j)] = value;
+    }
+
+    /**
+     * Загрузка строки полной матрицы с проверкой симметрии.
+     * <br>Строки грузятся по порядку: левее диагонали лежат уже известные элементы, они
+     * сверяются с сохранёнными, а в треугольник копируется только часть от диагонали.
+     * Так проверка симметрии идёт заодно с чтением, без отдельного прохода по N².</br>
+     * @param i номер строки
+     * @param row строка длины N
+     * @param eps допустимое расхождение {@code |G[i][j] − G[j][i]|}
+     * @return первый столбец {@code j < i}, где симметрия нарушена, или {@code -1}
+     */
+    public int loadRow(int i, double[] row, double eps) {
+        Objects.checkIndex(i, n);
+        if (row.length != n) throw new IllegalArgumentException("Row length must be " + n);
+
+        for (int j = 0; j < i; ++j) {
+            if (Math.abs(row[j] - packed[rowStart(j) + (i - j)]) > eps) { return j; }
+        }
+        System.arraycopy(row, i, packed, rowStart(i), n - i);
+        return -1;
+    }
+
+    /**
+     * Квадратичная форма {@code xᵀ·G·x} по треугольнику:
+     * {@code Σ G[i][i]·x[i]² + 2·Σ_{i<j} G[i][j]·x[i]·x[j]}.
+     * <br>Каждый элемент читается один раз, подряд — вдвое меньше памяти и умножений,
+     * чем {@code y = G·x} по полной матрице.</br>
+     * @param x вектор длины N
+     * @return значение формы
+     */
+    public double quadraticForm(double[] x) {
+        if (x.length != n) throw new IllegalArgumentException("Vector length must be " + n);
+        return quadraticFormRows(x, 0, n);
+    }
+
+    /**
+     * Вклад строк {@code [from, to)} треугольника в квадратичную форму — общий цикл
+     * для {@link #quadraticForm(double[])} и блоков {@link MatVecKernel}.
+     * <br>Строки лежат подряд и читаются одним проходом; длина {@code x} не проверяется.</br>
+     */
+    double quadraticFormRows(double[] x, int from, int to) {
+        double s = 0.0;
+        int k = rowStart(from);
+        for (int i = from; i < to; ++i) {
+            double diagonal = packed[k++];
+            double offDiagonal = 0.0;
+            for (int j = i + 1; j < n; ++j) {
+                offDiagonal += packed[k++] * x[j];
+            }
+            s += x[i] * (diagonal * x[i] + 2.0 * offDiagonal);
+        }
+        return s;
+    }
+
+    /**
+     * Смещение строки {@code i} в треугольнике.
+     */
+    int rowStart(int i) {
+        return (int) ((long) i * n - (long) i * (i - 1) / 2);
+    }
+
+    private int index(int i, int j) {
+        Objects.checkIndex(i, n);
+        Objects.checkIndex(j, n);
+        return (i <= j) ? rowStart(i) + (j - i) : rowStart(j) + (i - j);
+    }
+}
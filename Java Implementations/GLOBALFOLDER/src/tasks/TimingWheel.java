@@ -0,0 +1,224 @@
+package tasks;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Иерархическое <b>колесо таймеров</b> — планировщик тайм-аутов с O(1) на постановку и отмену.
+ * <br>Время делится на тики. Уровень 0 — 64 ячейки по одному тику, каждый следующий
+ * уровень — 64 ячейки в 64 раза крупнее. Таймер кладётся в ячейку того уровня,
+ * в диапазон которого попадает его срок; когда время доходит до границы крупной ячейки,
+ * её таймеры раскладываются ниже (каскад, как в таймерах ядра Linux).
+ * В отличие от {@link MyPriorityQueue}, упорядоченной по сроку, здесь нет ни O(log n)
+ * на вставку, ни поиска при отмене: каждый таймер — узел двусвязного списка своей ячейки.</br>
+ * <br>Часы подключаемые ({@link LongSupplier} в любых единицах, например
+ * {@link System#nanoTime()}), поэтому в тестах время можно двигать вручную.
+ * Срабатывания выдаются пачками в {@link #advance(Consumer)}; точность — один тик.</br>
+ * <br>Класс однопоточный.</br>
+ * @param <T> тип задач
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;    // Ячеек на уровне
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 11;                 // 6 * 11 бит покрывают любой long
+
+    /**
+     * Поставленный таймер. Через него таймер отменяется за O(1).
+     * @param <T> тип задачи
+     */
+    public static final class Timeout<T> {
+        private final TimingWheel<T> owner;
+        private final T task;
+        private final long deadline; // Тик срабатывания
+
+        private Timeout<T> prev;     // Соседи в списке ячейки
+        private Timeout<T> next;
+        private int level = -1;      // -1 — таймер не лежит в колесе
+        private int slot;
+        private boolean cancelled;
+
+        private Timeout(TimingWheel<T> owner, T task, long deadline) {
+            this.owner = owner;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public T task() { return task; }
+
+        /**
+         * @return номер тика, на котором таймер сработает
+         */
+        public long deadlineTick() { return deadline; }
+
+        /**
+         * Отмена за O(1).
+         * @return {@code true}, если таймер ещё ждал и теперь снят
+         */
+        public boolean cancel() {
+            if (level < 0) { return false; }
+
+            owner.unlink(this);
+            owner.size--;
+            cancelled = true;
+            return true;
+        }
+
+        public boolean isCancelled() { return cancelled; }
+
+        /**
+         * @return {@code true}, если задача уже выдана в {@link TimingWheel#advance(Consumer)}
+         */
+        public boolean isExpired() { return level < 0 && !cancelled; }
+    }
+
+    @SuppressWarnings("unchecked")
+    private final Timeout<T>[][] wheel = (Timeout<T>[][]) new Timeout<?>[LEVELS][SLOTS]; // Головы списков ячеек
+
+    private final LongSupplier clock;
+    private final long tickDuration; // Длина тика в единицах часов
+    private final long origin;       // Показание часов в нулевой тик
+    private long currentTick;        // Последний обработанный тик
+    private int size;
+
+    /**
+     * Колесо на системных часах {@link System#nanoTime()}.
+     * @param tickNanos длина тика в наносекундах
+     */
+    public TimingWheel(long tickNanos) {
+        this(tickNanos, System::nanoTime);
+    }
+
+    /**
+     * Колесо на заданных часах.
+     * @param tickDuration длина тика в единицах часов
+     * @param clock часы, показания не убывают
+     */
+    public TimingWheel(long tickDuration, LongSupplier clock) {
+        if (tickDuration < 1) throw new IllegalArgumentException("Tick duration must be positive.");
+
+        this.tickDuration = tickDuration;
+        this.clock = Objects.requireNonNull(clock);
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * Постановка задачи через {@code delay} единиц часов, округлённо вверх до тика.
+     * <br>Отсчёт идёт от последнего обработанного тика, поэтому задача никогда
+     * не сработает раньше срока относительно {@link #advance(Consumer)}.</br>
+     * @param task задача
+     * @param delay задержка в единицах часов, не меньше 0
+     * @return таймер для отмены
+     */
+    public Timeout<T> schedule(T task, long delay) {
+        if (delay < 0) throw new IllegalArgumentException("Delay must not be negative.");
+
+        long ticks = Math.max(1, delay / tickDuration + ((delay % tickDuration == 0) ? 0 : 1));
+        long deadline = (ticks > Long.MAX_VALUE - currentTick) ? Long.MAX_VALUE : currentTick + ticks;
+
+        Timeout<T> timeout = new Timeout<>(this, task, deadline);
+        link(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Обработка всех тиков до текущего показания часов.
+     * <br>Задачи одного тика выдаются пачкой; порядок внутри тика не определён.
+     * Из {@code action} можно ставить и отменять другие таймеры.</br>
+     * @param action получатель сработавших задач
+     * @return сколько задач сработало
+     */
+    public int advance(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+
+        long target = (clock.getAsLong() - origin) / tickDuration;
+        int expired = 0;
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target; // Пустое колесо: тики можно пропустить разом
+                break;
+            }
+            expired += tick(action);
+        }
+        return expired;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * @return номер последнего обработанного тика
+     */
+    public long currentTick() { return currentTick; }
+
+    /**
+     * Один тик: каскад с верхних уровней на границах их ячеек, затем срабатывание ячейки уровня 0.
+     */
+    private int tick(Consumer<? super T> action) {
+        long now = ++currentTick;
+
+        for (int level = 1; level < LEVELS; ++level) {
+            if (((now >>> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) { break; }
+            cascade(level, (int) ((now >>> (SLOT_BITS * level)) & SLOT_MASK));
+        }
+
+        int slot = (int) (now & SLOT_MASK);
+        int expired = 0;
+        Timeout<T> timeout;
+        while ((timeout = wheel[0][slot]) != null) {
+            unlink(timeout);
+            size--;
+            expired++;
+            action.accept(timeout.task);
+        }
+        return expired;
+    }
+
+    /**
+     * Перекладывание таймеров крупной ячейки на уровни ниже.
+     */
+    private void cascade(int level, int slot) {
+        Timeout<T> timeout = wheel[level][slot];
+        wheel[level][slot] = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = timeout.next = null;
+            link(timeout);
+            timeout = next;
+        }
+    }
+
+    /**
+     * Уровень выбирается по расстоянию до срока: на уровне L лежат сроки
+     * ближе чем через 64^(L+1) тиков.
+     */
+    private void link(Timeout<T> timeout) {
+        long distance = timeout.deadline - currentTick;
+        int level = (distance < SLOTS)
+                ? 0
+                : (63 - Long.numberOfLeadingZeros(distance)) / SLOT_BITS;
+        int slot = (int) ((timeout.deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Timeout<T> head = wheel[level][slot];
+        timeout.next = head;
+        if (head != null) { head.prev = timeout; }
+        wheel[level][slot] = timeout;
+        timeout.level = level;
+        timeout.slot = slot;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev == null) {
+            wheel[timeout.level][timeout.slot] = timeout.next;
+        } else {
+            timeout.prev.next = timeout.next;
+        }
+        if (timeout.next != null) { timeout.next.prev = timeout.prev; }
+
+        timeout.prev = timeout.next = null;
+        timeout.level = -1;
+    }
+}
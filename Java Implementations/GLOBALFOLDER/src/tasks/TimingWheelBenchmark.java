@@ -0,0 +1,104 @@
+package tasks;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Сравнение {@link TimingWheel} и {@link MyPriorityQueue} по сроку на нагрузке
+ * с высокой текучестью тайм-аутов: в колесе постоянно живёт много таймеров,
+ * на каждом шаге один ставится, а случайный другой отменяется (запрос успел ответить),
+ * и время сдвигается на тик каждые несколько шагов.
+ * <br>Очередь берётся индексная, чтобы отмена шла за O(log n), а не линейным поиском —
+ * иначе сравнение было бы нечестным. Обе структуры проходят одну и ту же
+ * последовательность операций, и число сработавших таймеров должно совпасть.</br>
+ * <br>Запуск: {@code java tasks.TimingWheelBenchmark [таймеров] [шагов]}</br>
+ */
+public class TimingWheelBenchmark {
+    private static final int MAX_DELAY = 10_000; // Задержки в тиках
+    private static final int STEPS_PER_TICK = 8;
+    private static final long SEED = 42;
+
+    /**
+     * Срок для кучи. Равенство — по ссылке, как и должно быть у отдельных таймеров.
+     */
+    private static final class Deadline {
+        final long tick;
+
+        Deadline(long tick) { this.tick = tick; }
+    }
+
+    public static void main(String... args) {
+        int live = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int steps = (args.length > 1) ? Integer.parseInt(args[1]) : 4_000_000;
+
+        for (int round = 0; round < 3; ++round) { // Первые прогоны — прогрев JIT
+            long wheelFired = runWheel(live, steps);
+            long heapFired = runHeap(live, steps);
+            if (wheelFired != heapFired) {
+                System.err.printf("Fired counts differ: wheel %d, heap %d%n", wheelFired, heapFired);
+                System.exit(1);
+            }
+        }
+    }
+
+    private static long runWheel(int live, int steps) {
+        long[] now = {0};
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, () -> now[0]);
+        @SuppressWarnings("unchecked")
+        TimingWheel.Timeout<Integer>[] handles = (TimingWheel.Timeout<Integer>[]) new TimingWheel.Timeout<?>[live];
+        Random random = new Random(SEED);
+        long[] fired = {0};
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < live; ++i) {
+            handles[i] = wheel.schedule(i, 1 + random.nextInt(MAX_DELAY));
+        }
+        for (int step = 0; step < steps; ++step) {
+            int victim = random.nextInt(live);
+            handles[victim].cancel();
+            handles[victim] = wheel.schedule(victim, 1 + random.nextInt(MAX_DELAY));
+            if (step % STEPS_PER_TICK == 0) {
+                now[0]++;
+                wheel.advance(task -> fired[0]++);
+            }
+        }
+        report("TimingWheel", live, steps, System.nanoTime() - begin, fired[0]);
+        return fired[0];
+    }
+
+    private static long runHeap(int live, int steps) {
+        long now = 0;
+        MyPriorityQueue<Deadline> queue = MyPriorityQueue.indexed(
+                live, Comparator.comparingLong((Deadline deadline) -> deadline.tick), 2);
+        Deadline[] handles = new Deadline[live];
+        Random random = new Random(SEED);
+        long fired = 0;
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < live; ++i) {
+            handles[i] = new Deadline(now + 1 + random.nextInt(MAX_DELAY));
+            queue.add(handles[i]);
+        }
+        for (int step = 0; step < steps; ++step) {
+            int victim = random.nextInt(live);
+            queue.remove(handles[victim]);
+            handles[victim] = new Deadline(now + 1 + random.nextInt(MAX_DELAY));
+            queue.add(handles[victim]);
+            if (step % STEPS_PER_TICK == 0) {
+                now++;
+                while (!queue.isEmpty() && queue.peek().tick <= now) {
+                    queue.poll();
+                    fired++;
+                }
+            }
+        }
+        report("MyPriorityQueue", live, steps, System.nanoTime() - begin, fired);
+        return fired;
+    }
+
+    private static void report(String name, int live, int steps, long elapsed, long fired) {
+        System.out.printf(Locale.ROOT, "%-16s %,d timers, %,d steps: %.1f ms (%.0f ns/step), %,d fired%n",
+                name, live, steps, elapsed / 1e6, (double) elapsed / steps, fired);
+    }
+}